@@ -33,6 +33,7 @@ import com.android.launcher3.DeviceProfile;
 import com.android.launcher3.DeviceProfile.DeviceProfileListenable;
 import com.android.launcher3.DeviceProfile.OnDeviceProfileChangeListener;
 import com.android.launcher3.R;
+import com.android.launcher3.allapps.AllAppsStore;
 import com.android.launcher3.allapps.FloatingHeaderRow;
 import com.android.launcher3.allapps.FloatingHeaderView;
 import com.android.launcher3.anim.AlphaUpdateListener;
@@ -104,6 +105,21 @@ public class PredictionRowView<T extends Context & ActivityContext & DeviceProfi
         }
     }
 
+    @Nullable
+    private AllAppsStore getAppsStore() {
+        return mActivityContext.getAppsView() == null
+                ? null : mActivityContext.getAppsView().getAppsStore();
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        AllAppsStore appsStore = getAppsStore();
+        if (appsStore != null && child instanceof BubbleTextView) {
+            appsStore.onIconUnbound((BubbleTextView) child);
+        }
+    }
+
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, MeasureSpec.makeMeasureSpec(getExpectedHeight(),
@@ -219,6 +235,7 @@ public class PredictionRowView<T extends Context & ActivityContext & DeviceProfi
         }
 
         int predictionCount = mPredictedApps.size();
+        AllAppsStore appsStore = getAppsStore();
 
         for (int i = 0; i < getChildCount(); i++) {
             BubbleTextView icon = (BubbleTextView) getChildAt(i);
@@ -226,8 +243,14 @@ public class PredictionRowView<T extends Context & ActivityContext & DeviceProfi
             if (predictionCount > i) {
                 icon.setVisibility(View.VISIBLE);
                 icon.applyFromWorkspaceItem(mPredictedApps.get(i));
+                if (appsStore != null) {
+                    appsStore.onIconBound(icon, mPredictedApps.get(i));
+                }
             } else {
                 icon.setVisibility(predictionCount == 0 ? GONE : INVISIBLE);
+                if (appsStore != null) {
+                    appsStore.onIconUnbound(icon);
+                }
             }
         }
 
@@ -82,6 +82,7 @@ public class TaskbarPopupController implements TaskbarControllers.LoggableTaskba
 
     public void onDestroy() {
         NotificationListener.removeNotificationsChangedListener(mPopupDataProvider);
+        mPopupDataProvider.destroy();
     }
 
     @NonNull
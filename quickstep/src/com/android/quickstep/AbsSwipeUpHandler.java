@@ -91,6 +91,7 @@ import com.android.launcher3.logging.StatsLogManager;
 import com.android.launcher3.logging.StatsLogManager.StatsLogger;
 import com.android.launcher3.statemanager.BaseState;
 import com.android.launcher3.statemanager.StatefulActivity;
+import com.android.launcher3.tracing.GestureStateProto;
 import com.android.launcher3.tracing.InputConsumerProto;
 import com.android.launcher3.tracing.SwipeHandlerProto;
 import com.android.launcher3.util.ActivityLifecycleCallbacksAdapter;
@@ -102,6 +103,7 @@ import com.android.quickstep.RemoteTargetGluer.RemoteTargetHandle;
 import com.android.quickstep.util.ActiveGestureLog;
 import com.android.quickstep.util.ActivityInitListener;
 import com.android.quickstep.util.AnimatorControllerWithResistance;
+import com.android.quickstep.util.GestureMetrics;
 import com.android.quickstep.util.InputConsumerProxy;
 import com.android.quickstep.util.InputProxyHandlerFactory;
 import com.android.quickstep.util.MotionPauseDetector;
@@ -277,6 +279,7 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
 
     private final long mTouchTimeMs;
     private long mLauncherFrameDrawnTime;
+    private final GestureMetrics.Recorder mGestureMetrics;
 
     private final Runnable mOnDeferredActivityLaunch = this::onDeferredActivityLaunch;
 
@@ -306,6 +309,8 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
                 }, new InputProxyHandlerFactory(mActivityInterface, mGestureState));
         mTaskAnimationManager = taskAnimationManager;
         mTouchTimeMs = touchTimeMs;
+        mGestureMetrics = GestureMetrics.INSTANCE.newRecorder(gestureState.getGestureId(),
+                touchTimeMs, getSingleFrameMs(context));
         mContinuingLastGesture = continuingLastGesture;
         mQuickSwitchScaleScrollThreshold = context.getResources().getDimension(
                 R.dimen.quick_switch_scaling_scroll_threshold);
@@ -582,6 +587,7 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
 
     private void launcherFrameDrawn() {
         mLauncherFrameDrawnTime = SystemClock.uptimeMillis();
+        mGestureMetrics.onFirstFrameDrawn();
     }
 
     private void initializeLauncherAnimationController() {
@@ -795,6 +801,7 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
             RecentsAnimationTargets targets) {
         super.onRecentsAnimationStart(controller, targets);
         ActiveGestureLog.INSTANCE.addLog("startRecentsAnimationCallback", targets.apps.length);
+        mGestureMetrics.onRecentsAnimationStart();
         mRemoteTargetHandles = mTargetGluer.assignTargetsForSplitScreen(mContext, targets);
         mRecentsAnimationController = controller;
         mRecentsAnimationTargets = targets;
@@ -839,6 +846,7 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
     public void onRecentsAnimationCanceled(HashMap<Integer, ThumbnailData> thumbnailDatas) {
         ActiveGestureLog.INSTANCE.addLog("cancelRecentsAnimation");
         mActivityInitListener.unregister();
+        MAIN_EXECUTOR.execute(mGestureMetrics::stopFrameTracking);
         // Cache the recents animation controller so we can defer its cleanup to after having
         // properly cleaned up the screenshot without accidentally using it.
         mDeferredCleanupRecentsAnimationController = mRecentsAnimationController;
@@ -884,6 +892,7 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
         }
         notifyGestureStartedAsync();
         setIsLikelyToStartNewTask(isLikelyToStartNewTask, false /* animate */);
+        mGestureMetrics.startFrameTracking();
         mStateCallback.setStateOnUiThread(STATE_GESTURE_STARTED);
         mGestureStarted = true;
         SystemUiProxy.INSTANCE.get(mContext).notifySwipeUpGestureStarted();
@@ -1004,7 +1013,8 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
                 }
                 break;
         }
-        ActiveGestureLog.INSTANCE.addLog("onSettledOnEndTarget " + endTarget);
+        ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_SETTLED_ON_END_TARGET,
+                endTarget.ordinal());
     }
 
     /** @return Whether this was the task we were waiting to appear, and thus handled it. */
@@ -1607,6 +1617,7 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
     private void cancelCurrentAnimation() {
         mCanceled = true;
         mCurrentShift.cancelAnimation();
+        mGestureMetrics.stopFrameTracking();
 
         // Cleanup when switching handlers
         mInputConsumerProxy.unregisterCallback();
@@ -1616,6 +1627,9 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
     }
 
     private void invalidateHandler() {
+        GestureEndTarget endTarget = mGestureState.getEndTarget();
+        mGestureMetrics.commit(endTarget == null
+                ? GestureStateProto.GestureEndTarget.UNSET : endTarget.protoEndTarget);
         if (!ENABLE_QUICKSTEP_LIVE_TILE.get() || !mActivityInterface.isInLiveTileMode()
                 || mGestureState.getEndTarget() != RECENTS) {
             mInputConsumerProxy.destroy();
@@ -2013,7 +2027,9 @@ public abstract class AbsSwipeUpHandler<T extends StatefulActivity<S>,
                 if (setRecentsScroll) {
                     taskViewSimulator.setScroll(mRecentsView.getScrollOffset());
                 }
+                long transformStartNanos = System.nanoTime();
                 taskViewSimulator.apply(remoteHandle.getTransformParams());
+                mGestureMetrics.onTransformApplied(transformStartNanos);
             }
         }
         ProtoTracer.INSTANCE.get(mContext).scheduleFrameUpdate();
@@ -112,9 +112,16 @@ public interface InputConsumer {
     }
 
     default String getName() {
+        return getName(getType());
+    }
+
+    /**
+     * Returns the name of an input consumer of the provided type.
+     */
+    static String getName(int type) {
         StringBuilder name = new StringBuilder();
         for (int i = 0; i < NAMES.length; i++) {
-            if ((getType() & (1 << i)) != 0) {
+            if ((type & (1 << i)) != 0) {
                 if (name.length() > 0) {
                     name.append(":");
                 }
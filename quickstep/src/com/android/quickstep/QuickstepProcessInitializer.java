@@ -15,16 +15,21 @@
  */
 package com.android.quickstep;
 
+import static com.android.launcher3.util.SettingsCache.ONE_HANDED_ENABLED;
+import static com.android.launcher3.util.SettingsCache.ONE_HANDED_SWIPE_BOTTOM_TO_NOTIFICATION_ENABLED;
+
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.UserManager;
+import android.provider.Settings;
 import android.util.Log;
 import android.view.ThreadedRenderer;
 
 import com.android.launcher3.BuildConfig;
 import com.android.launcher3.MainProcessInitializer;
+import com.android.launcher3.util.SettingsCache;
 import com.android.systemui.shared.system.InteractionJankMonitorWrapper;
 
 @SuppressWarnings("unused")
@@ -57,6 +62,12 @@ public class QuickstepProcessInitializer extends MainProcessInitializer {
 
         super.init(context);
 
+        // Settings read by the quickstep components during startup
+        SettingsCache.INSTANCE.get(context).prefetch(
+                Settings.Secure.getUriFor(ONE_HANDED_ENABLED),
+                Settings.Secure.getUriFor(ONE_HANDED_SWIPE_BOTTOM_TO_NOTIFICATION_ENABLED),
+                Settings.Secure.getUriFor(Settings.Secure.USER_SETUP_COMPLETE));
+
         // Elevate GPU priority for Quickstep and Remote animations.
         ThreadedRenderer.setContextPriority(
                 ThreadedRenderer.EGL_CONTEXT_PRIORITY_HIGH_IMG);
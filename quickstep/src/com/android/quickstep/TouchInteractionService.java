@@ -93,6 +93,7 @@ import com.android.quickstep.inputconsumers.ScreenPinnedInputConsumer;
 import com.android.quickstep.inputconsumers.SysUiOverlayInputConsumer;
 import com.android.quickstep.inputconsumers.TaskbarStashInputConsumer;
 import com.android.quickstep.util.ActiveGestureLog;
+import com.android.quickstep.util.GestureMetrics;
 import com.android.quickstep.util.ProtoTracer;
 import com.android.quickstep.util.ProxyScreenStatusProvider;
 import com.android.quickstep.util.SplitScreenBounds;
@@ -604,7 +605,8 @@ public class TouchInteractionService extends Service
                 mGestureState = newGestureState;
                 mConsumer = newConsumer(prevGestureState, mGestureState, event);
 
-                ActiveGestureLog.INSTANCE.addLog("setInputConsumer: " + mConsumer.getName());
+                ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_SET_INPUT_CONSUMER,
+                        mConsumer.getType());
                 mUncheckedConsumer = mConsumer;
             } else if (mDeviceState.isUserUnlocked() && mDeviceState.isFullyGesturalNavMode()
                     && mDeviceState.canTriggerAssistantAction(event)) {
@@ -633,12 +635,12 @@ public class TouchInteractionService extends Service
             switch (event.getActionMasked()) {
                 case ACTION_DOWN:
                 case ACTION_UP:
-                    ActiveGestureLog.INSTANCE.addLog("onMotionEvent("
-                            + (int) event.getRawX() + ", " + (int) event.getRawY() + ")",
-                            event.getActionMasked());
+                    ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_MOTION,
+                            event.getRawX(), event.getRawY(), event.getActionMasked());
                     break;
                 default:
-                    ActiveGestureLog.INSTANCE.addLog("onMotionEvent", event.getActionMasked());
+                    ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_MOTION,
+                            event.getActionMasked());
                     break;
             }
         }
@@ -993,6 +995,7 @@ public class TouchInteractionService extends Service
             pw.println("  resumed=" + resumed);
             pw.println("  mConsumer=" + mConsumer.getName());
             ActiveGestureLog.INSTANCE.dump("", pw);
+            GestureMetrics.INSTANCE.dump("", pw);
             RecentsModel.INSTANCE.get(this).dump("", pw);
             pw.println("ProtoTrace:");
             pw.println("  file=" + ProtoTracer.INSTANCE.get(this).getTraceFile());
@@ -1040,6 +1043,7 @@ public class TouchInteractionService extends Service
             mOverviewComponentObserver.writeToProto(serviceProto);
         }
         mConsumer.writeToProto(serviceProto);
+        GestureMetrics.INSTANCE.writeToProto(serviceProto);
 
         proto.setTouchInteractionService(serviceProto);
     }
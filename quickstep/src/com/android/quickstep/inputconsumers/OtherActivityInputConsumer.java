@@ -27,6 +27,7 @@ import static com.android.launcher3.PagedView.ACTION_MOVE_ALLOW_EASY_FLING;
 import static com.android.launcher3.PagedView.DEBUG_FAILED_QUICKSWITCH;
 import static com.android.launcher3.Utilities.EDGE_NAV_BAR;
 import static com.android.launcher3.Utilities.squaredHypot;
+import static com.android.launcher3.config.FeatureFlags.ENABLE_BATCHED_GESTURE_INPUT;
 import static com.android.launcher3.util.TraceHelper.FLAG_CHECK_FOR_RACE_CONDITIONS;
 import static com.android.launcher3.util.VelocityUtils.PX_PER_MS;
 import static com.android.quickstep.util.ActiveGestureLog.INTENT_EXTRA_LOG_TRACE_ID;
@@ -220,8 +221,11 @@ public class OtherActivityInputConsumer extends ContextWrapper implements InputC
 
         switch (ev.getActionMasked()) {
             case ACTION_DOWN: {
-                // Until we detect the gesture, handle events as we receive them
-                mInputEventReceiver.setBatchingEnabled(false);
+                // Until we detect the gesture, handle events as we receive them, unless batched
+                // input is enabled in which case each batch is processed once per frame.
+                if (!ENABLE_BATCHED_GESTURE_INPUT.get()) {
+                    mInputEventReceiver.setBatchingEnabled(false);
+                }
 
                 Object traceToken = TraceHelper.INSTANCE.beginSection(DOWN_EVT,
                         FLAG_CHECK_FOR_RACE_CONDITIONS);
@@ -354,7 +358,7 @@ public class OtherActivityInputConsumer extends ContextWrapper implements InputC
     }
 
     private void notifyGestureStarted(boolean isLikelyToStartNewTask) {
-        ActiveGestureLog.INSTANCE.addLog("startQuickstep");
+        ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_START_QUICKSTEP);
         if (mInteractionHandler == null) {
             return;
         }
@@ -368,7 +372,7 @@ public class OtherActivityInputConsumer extends ContextWrapper implements InputC
     }
 
     private void startTouchTrackingForWindowAnimation(long touchTimeMs) {
-        ActiveGestureLog.INSTANCE.addLog("startRecentsAnimation");
+        ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_START_RECENTS_ANIMATION);
 
         mInteractionHandler = mHandlerFactory.newHandler(mGestureState, touchTimeMs);
         mInteractionHandler.setGestureEndCallback(this::onInteractionGestureFinished);
@@ -91,7 +91,7 @@ public class OverviewInputConsumer<S extends BaseState<S>, T extends StatefulAct
             if (!mStartingInActivityBounds) {
                 mActivityInterface.closeOverlay();
                 TaskUtils.closeSystemWindowsAsync(CLOSE_SYSTEM_WINDOWS_REASON_RECENTS);
-                ActiveGestureLog.INSTANCE.addLog("startQuickstep");
+                ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_START_QUICKSTEP);
             }
             if (mInputMonitor != null) {
                 TestLogging.recordEvent(TestProtocol.SEQUENCE_PILFER, "pilferPointers");
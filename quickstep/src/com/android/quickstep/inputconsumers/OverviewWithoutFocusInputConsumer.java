@@ -84,7 +84,7 @@ public class OverviewWithoutFocusInputConsumer implements InputConsumer,
         } catch (NullPointerException | ActivityNotFoundException | SecurityException e) {
             mContext.startActivity(createHomeIntent());
         }
-        ActiveGestureLog.INSTANCE.addLog("startQuickstep");
+        ActiveGestureLog.INSTANCE.addLog(ActiveGestureLog.EVENT_START_QUICKSTEP);
         BaseActivity activity = BaseDraggingActivity.fromContext(mContext);
         int state = (mGestureState != null && mGestureState.getEndTarget() != null)
                 ? mGestureState.getEndTarget().containerType
@@ -19,6 +19,8 @@ import android.content.Context;
 
 import com.android.launcher3.logging.EventLogArray;
 import com.android.launcher3.util.MainThreadInitializedObject;
+import com.android.quickstep.GestureState.GestureEndTarget;
+import com.android.quickstep.InputConsumer;
 
 /**
  * A log to keep track of the active gesture.
@@ -33,7 +35,26 @@ public class ActiveGestureLog extends EventLogArray {
      */
     public static final String INTENT_EXTRA_LOG_TRACE_ID = "INTENT_EXTRA_LOG_TRACE_ID";
 
+    // Events logged on the input path, recorded by id to avoid allocating per motion event.
+    public static final int EVENT_MOTION = INSTANCE.registerEvent("onMotionEvent");
+    public static final int EVENT_START_QUICKSTEP = INSTANCE.registerEvent("startQuickstep");
+    public static final int EVENT_START_RECENTS_ANIMATION =
+            INSTANCE.registerEvent("startRecentsAnimation");
+    // Events logged once per gesture, with the variable part formatted only when dumped
+    public static final int EVENT_SET_INPUT_CONSUMER =
+            INSTANCE.registerEvent("setInputConsumer", InputConsumer::getName);
+    public static final int EVENT_SET_END_TARGET =
+            INSTANCE.registerEvent("setEndTarget", ActiveGestureLog::getEndTargetName);
+    public static final int EVENT_SETTLED_ON_END_TARGET =
+            INSTANCE.registerEvent("onSettledOnEndTarget", ActiveGestureLog::getEndTargetName);
+
     private ActiveGestureLog() {
         super("touch_interaction_log", 40);
     }
+
+    private static String getEndTargetName(int ordinal) {
+        GestureEndTarget[] targets = GestureEndTarget.values();
+        return ordinal >= 0 && ordinal < targets.length
+                ? targets[ordinal].name() : String.valueOf(ordinal);
+    }
 }
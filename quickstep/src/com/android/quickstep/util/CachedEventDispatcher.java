@@ -30,7 +30,7 @@ public class CachedEventDispatcher {
 
     private Consumer<MotionEvent> mConsumer;
 
-    private ArrayList<MotionEvent> mCache;
+    private final ArrayList<MotionEvent> mCache = new ArrayList<>();
     private MotionEvent mLastEvent;
 
     public void dispatchEvent(MotionEvent event) {
@@ -39,9 +39,6 @@ public class CachedEventDispatcher {
         } else {
             if (mLastEvent == null || !mergeMotionEvent(event, mLastEvent)) {
                 // Queue event.
-                if (mCache == null) {
-                    mCache = new ArrayList<>();
-                }
                 mLastEvent = MotionEvent.obtain(event);
                 mCache.add(mLastEvent);
             }
@@ -53,13 +50,13 @@ public class CachedEventDispatcher {
             return;
         }
         mConsumer = consumer;
-        int cacheCount = mCache == null ? 0 : mCache.size();
+        int cacheCount = mCache.size();
         for (int i = 0; i < cacheCount; i++) {
             MotionEvent ev = mCache.get(i);
             mConsumer.accept(ev);
             ev.recycle();
         }
-        mCache = null;
+        mCache.clear();
         mLastEvent = null;
     }
 
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.quickstep.util;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import androidx.annotation.UiThread;
+
+import com.android.launcher3.tracing.GestureMetricsProto;
+import com.android.launcher3.tracing.GestureStateProto;
+import com.android.launcher3.tracing.TouchInteractionServiceProto;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Structured per-gesture latency and frame metrics for the swipe up gesture.
+ *
+ * Completed gestures are stored in a fixed size ring buffer of primitive records. The buffer has
+ * a single writer (the UI thread) and is read without locking when dumping: readers copy the
+ * records and discard any that may have been overwritten while they were being copied.
+ */
+public class GestureMetrics {
+
+    public static final GestureMetrics INSTANCE = new GestureMetrics();
+
+    private static final int CAPACITY = 32;
+
+    // A frame is considered missed if it took longer than this many vsync periods
+    private static final float MISSED_FRAME_THRESHOLD = 1.5f;
+    // Frames are no longer tracked after this long, in case the recorder is never committed
+    private static final long MAX_FRAME_TRACKING_NANOS = 5_000_000_000L;
+
+    private static final int FIELD_GESTURE_ID = 0;
+    private static final int FIELD_TOUCH_DOWN_TIME_MS = 1;
+    private static final int FIELD_FIRST_FRAME_LATENCY_MS = 2;
+    private static final int FIELD_RECENTS_ANIMATION_START_LATENCY_MS = 3;
+    private static final int FIELD_FRAME_COUNT = 4;
+    private static final int FIELD_MISSED_FRAME_COUNT = 5;
+    private static final int FIELD_TRANSFORM_COUNT = 6;
+    private static final int FIELD_TOTAL_TRANSFORM_TIME_NS = 7;
+    private static final int FIELD_MAX_TRANSFORM_TIME_NS = 8;
+    private static final int FIELD_END_TARGET = 9;
+    private static final int FIELD_COUNT = 10;
+
+    private final long[] mRecords = new long[CAPACITY * FIELD_COUNT];
+    // Number of records ever written; also publishes the records to readers.
+    private final AtomicLong mWriteCount = new AtomicLong();
+
+    private GestureMetrics() { }
+
+    /**
+     * Returns a new recorder for a gesture which started at the provided touch down time.
+     */
+    @UiThread
+    public Recorder newRecorder(int gestureId, long touchTimeMs, int singleFrameMs) {
+        return new Recorder(gestureId, touchTimeMs, singleFrameMs);
+    }
+
+    @UiThread
+    private void commit(long[] record) {
+        long count = mWriteCount.get();
+        int offset = (int) (count % CAPACITY) * FIELD_COUNT;
+        System.arraycopy(record, 0, mRecords, offset, FIELD_COUNT);
+        mWriteCount.set(count + 1);
+    }
+
+    /**
+     * Copies the records which are currently available, oldest first, and returns the number of
+     * records copied.
+     */
+    private int snapshot(long[] out) {
+        long end = mWriteCount.get();
+        long start = Math.max(0, end - CAPACITY);
+        for (long i = start; i < end; i++) {
+            System.arraycopy(mRecords, (int) (i % CAPACITY) * FIELD_COUNT,
+                    out, (int) (i - start) * FIELD_COUNT, FIELD_COUNT);
+        }
+        // Drop the records which the writer may have overwritten while they were being copied
+        long validStart = Math.max(start, mWriteCount.get() - CAPACITY + 1);
+        if (validStart >= end) {
+            return 0;
+        }
+        int dropped = (int) (validStart - start);
+        if (dropped > 0) {
+            System.arraycopy(out, dropped * FIELD_COUNT, out, 0,
+                    (int) (end - validStart) * FIELD_COUNT);
+        }
+        return (int) (end - validStart);
+    }
+
+    public void dump(String prefix, PrintWriter writer) {
+        long[] records = new long[CAPACITY * FIELD_COUNT];
+        int count = snapshot(records);
+        writer.println(prefix + "GestureMetrics (" + count + " gestures):");
+        for (int i = 0; i < count; i++) {
+            int o = i * FIELD_COUNT;
+            long transforms = records[o + FIELD_TRANSFORM_COUNT];
+            writer.println(prefix + "  gestureId=" + records[o + FIELD_GESTURE_ID]
+                    + " touchDown=" + records[o + FIELD_TOUCH_DOWN_TIME_MS]
+                    + " firstFrameMs=" + records[o + FIELD_FIRST_FRAME_LATENCY_MS]
+                    + " recentsAnimStartMs="
+                    + records[o + FIELD_RECENTS_ANIMATION_START_LATENCY_MS]
+                    + " frames=" + records[o + FIELD_FRAME_COUNT]
+                    + " missedFrames=" + records[o + FIELD_MISSED_FRAME_COUNT]
+                    + " avgTransformUs="
+                    + (transforms == 0 ? 0
+                            : records[o + FIELD_TOTAL_TRANSFORM_TIME_NS] / transforms / 1000)
+                    + " maxTransformUs=" + records[o + FIELD_MAX_TRANSFORM_TIME_NS] / 1000
+                    + " endTarget=" + GestureStateProto.GestureEndTarget.forNumber(
+                            (int) records[o + FIELD_END_TARGET]));
+        }
+    }
+
+    /**
+     * Used for winscope tracing, see launcher_trace.proto. Writes the most recent gesture.
+     * @param serviceProto The parent of this proto message.
+     */
+    public void writeToProto(TouchInteractionServiceProto.Builder serviceProto) {
+        long[] records = new long[CAPACITY * FIELD_COUNT];
+        int count = snapshot(records);
+        if (count == 0) {
+            return;
+        }
+        int o = (count - 1) * FIELD_COUNT;
+        GestureStateProto.GestureEndTarget endTarget = GestureStateProto.GestureEndTarget
+                .forNumber((int) records[o + FIELD_END_TARGET]);
+        serviceProto.setLastGestureMetrics(GestureMetricsProto.newBuilder()
+                .setGestureId((int) records[o + FIELD_GESTURE_ID])
+                .setTouchDownTimeMs(records[o + FIELD_TOUCH_DOWN_TIME_MS])
+                .setFirstFrameLatencyMs(records[o + FIELD_FIRST_FRAME_LATENCY_MS])
+                .setRecentsAnimationStartLatencyMs(
+                        records[o + FIELD_RECENTS_ANIMATION_START_LATENCY_MS])
+                .setFrameCount((int) records[o + FIELD_FRAME_COUNT])
+                .setMissedFrameCount((int) records[o + FIELD_MISSED_FRAME_COUNT])
+                .setTransformCount((int) records[o + FIELD_TRANSFORM_COUNT])
+                .setTotalTransformTimeNs(records[o + FIELD_TOTAL_TRANSFORM_TIME_NS])
+                .setMaxTransformTimeNs(records[o + FIELD_MAX_TRANSFORM_TIME_NS])
+                .setEndTarget(endTarget == null
+                        ? GestureStateProto.GestureEndTarget.UNSET : endTarget));
+    }
+
+    /**
+     * Collects the metrics of a single gesture on the UI thread, and commits them to the ring
+     * buffer once the gesture is done.
+     */
+    public class Recorder implements Choreographer.FrameCallback {
+
+        private final long[] mRecord = new long[FIELD_COUNT];
+        private final long mTouchTimeMs;
+        private final long mFramePeriodNanos;
+
+        private long mFirstFrameTimeNanos;
+        private long mLastFrameTimeNanos;
+        private boolean mTrackingFrames;
+        private boolean mCommitted;
+
+        private Recorder(int gestureId, long touchTimeMs, int singleFrameMs) {
+            mTouchTimeMs = touchTimeMs;
+            mFramePeriodNanos = Math.max(singleFrameMs, 1) * 1_000_000L;
+            mRecord[FIELD_GESTURE_ID] = gestureId;
+            mRecord[FIELD_TOUCH_DOWN_TIME_MS] = touchTimeMs;
+            mRecord[FIELD_FIRST_FRAME_LATENCY_MS] = -1;
+            mRecord[FIELD_RECENTS_ANIMATION_START_LATENCY_MS] = -1;
+        }
+
+        /**
+         * Called when the first launcher frame of the gesture has been drawn.
+         */
+        public void onFirstFrameDrawn() {
+            if (mRecord[FIELD_FIRST_FRAME_LATENCY_MS] < 0) {
+                mRecord[FIELD_FIRST_FRAME_LATENCY_MS] = SystemClock.uptimeMillis() - mTouchTimeMs;
+            }
+        }
+
+        /**
+         * Called when the recents animation has started.
+         */
+        public void onRecentsAnimationStart() {
+            if (mRecord[FIELD_RECENTS_ANIMATION_START_LATENCY_MS] < 0) {
+                mRecord[FIELD_RECENTS_ANIMATION_START_LATENCY_MS] =
+                        SystemClock.uptimeMillis() - mTouchTimeMs;
+            }
+        }
+
+        /**
+         * Records the time taken to apply a window transform.
+         * @param startNanos the value of {@link System#nanoTime()} before applying the transform
+         */
+        public void onTransformApplied(long startNanos) {
+            long duration = System.nanoTime() - startNanos;
+            mRecord[FIELD_TRANSFORM_COUNT]++;
+            mRecord[FIELD_TOTAL_TRANSFORM_TIME_NS] += duration;
+            if (duration > mRecord[FIELD_MAX_TRANSFORM_TIME_NS]) {
+                mRecord[FIELD_MAX_TRANSFORM_TIME_NS] = duration;
+            }
+        }
+
+        /**
+         * Starts counting frames and missed frames until the recorder is committed.
+         */
+        @UiThread
+        public void startFrameTracking() {
+            if (mTrackingFrames || mCommitted) {
+                return;
+            }
+            mTrackingFrames = true;
+            mFirstFrameTimeNanos = 0;
+            mLastFrameTimeNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        /**
+         * Stops counting frames, keeping the frames counted so far for the commit.
+         */
+        @UiThread
+        public void stopFrameTracking() {
+            if (mTrackingFrames) {
+                mTrackingFrames = false;
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mTrackingFrames) {
+                return;
+            }
+            if (mFirstFrameTimeNanos == 0) {
+                mFirstFrameTimeNanos = frameTimeNanos;
+            } else if (frameTimeNanos - mFirstFrameTimeNanos > MAX_FRAME_TRACKING_NANOS) {
+                // Stop requesting frames, which would otherwise keep vsync running
+                mTrackingFrames = false;
+                return;
+            }
+            if (mLastFrameTimeNanos != 0) {
+                mRecord[FIELD_FRAME_COUNT]++;
+                long interval = frameTimeNanos - mLastFrameTimeNanos;
+                if (interval > mFramePeriodNanos * MISSED_FRAME_THRESHOLD) {
+                    mRecord[FIELD_MISSED_FRAME_COUNT] += Math.round(
+                            (double) interval / mFramePeriodNanos) - 1;
+                }
+            }
+            mLastFrameTimeNanos = frameTimeNanos;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        /**
+         * Stops tracking and adds the metrics of this gesture to the ring buffer. Only the first
+         * call has any effect.
+         */
+        public void commit(GestureStateProto.GestureEndTarget endTarget) {
+            if (mCommitted) {
+                return;
+            }
+            mCommitted = true;
+            stopFrameTracking();
+            mRecord[FIELD_END_TARGET] = endTarget.getNumber();
+            GestureMetrics.this.commit(mRecord);
+        }
+    }
+}
@@ -19,8 +19,9 @@ package com.android.quickstep.util;
 import static android.content.Intent.FLAG_ACTIVITY_NEW_TASK;
 import static android.content.Intent.FLAG_GRANT_READ_URI_PERMISSION;
 
+import static com.android.launcher3.config.FeatureFlags.ENABLE_HARDWARE_THUMBNAIL_PATH;
+import static com.android.launcher3.config.FeatureFlags.OVERVIEW_SHARE_WEBP_LOSSLESS;
 import static com.android.launcher3.util.Executors.MAIN_EXECUTOR;
-import static com.android.launcher3.util.Executors.THREAD_POOL_EXECUTOR;
 import static com.android.launcher3.util.Executors.UI_HELPER_EXECUTOR;
 
 import android.app.Activity;
@@ -55,7 +56,6 @@ import com.android.quickstep.SystemUiProxy;
 import com.android.systemui.shared.recents.model.Task;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
@@ -70,8 +70,39 @@ public class ImageActionUtils {
     private static final long FILE_LIFE = 1000L /*ms*/ * 60L /*s*/ * 60L /*m*/ * 24L /*h*/;
     private static final String SUB_FOLDER = "Overview";
     private static final String BASE_NAME = "overview_image_";
+    private static final int MAX_CACHE_FILES = 10;
+    // Exported files are kept at least this long, as a share target may still be reading them
+    private static final long MIN_FILE_LIFE = 1000L /*ms*/ * 60L /*s*/ * 10L /*m*/;
     private static final String TAG = "ImageActionUtils";
 
+    private static ImageExportCache sExportCache;
+
+    /**
+     * Formats supported when exporting images from overview.
+     */
+    public enum ExportFormat {
+        PNG(Bitmap.CompressFormat.PNG, ".png", "image/png"),
+        WEBP_LOSSLESS(Bitmap.CompressFormat.WEBP_LOSSLESS, ".webp", "image/webp");
+
+        public final Bitmap.CompressFormat compressFormat;
+        public final String extension;
+        public final String mimeType;
+
+        ExportFormat(Bitmap.CompressFormat compressFormat, String extension, String mimeType) {
+            this.compressFormat = compressFormat;
+            this.extension = extension;
+            this.mimeType = mimeType;
+        }
+    }
+
+    /**
+     * Returns the format used for exported images.
+     */
+    public static ExportFormat getExportFormat() {
+        return Utilities.ATLEAST_R && OVERVIEW_SHARE_WEBP_LOSSLESS.get()
+                ? ExportFormat.WEBP_LOSSLESS : ExportFormat.PNG;
+    }
+
     /**
      * Saves screenshot to location determine by SystemUiProxy
      */
@@ -79,7 +110,8 @@ public class ImageActionUtils {
             Rect screenshotBounds,
             Insets visibleInsets, Task.TaskKey task) {
         systemUiProxy.handleImageBundleAsScreenshot(
-                ScreenshotHelper.HardwareBitmapBundler.hardwareBitmapToBundle(screenshot),
+                ScreenshotHelper.HardwareBitmapBundler.hardwareBitmapToBundle(
+                        toHardwareBitmap(screenshot)),
                 screenshotBounds, visibleInsets, task);
     }
 
@@ -96,15 +128,16 @@ public class ImageActionUtils {
         Rect crop = new Rect();
         rectF.round(crop);
         Intent intent = new Intent();
+        String mimeType = getExportFormat().mimeType;
         Uri uri =  getImageUri(bitmapSupplier.get(), crop, context, tag);
         ClipData clipdata = new ClipData(new ClipDescription("content",
-                new String[]{"image/png"}),
+                new String[]{mimeType}),
                 new ClipData.Item(uri));
         intent.setAction(Intent.ACTION_SEND)
             .setComponent(new ComponentName(appTarget.getPackageName(), appTarget.getClassName()))
             .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK)
             .addFlags(FLAG_GRANT_READ_URI_PERMISSION)
-            .setType("image/png")
+            .setType(mimeType)
             .putExtra(Intent.EXTRA_STREAM, uri)
             .putExtra(Intent.EXTRA_SHORTCUT_ID, shortcutInfo.getId())
             .setClipData(clipdata);
@@ -226,6 +259,10 @@ public class ImageActionUtils {
      * Converts image bitmap to Uri by temporarily saving bitmap to cache, and creating Uri pointing
      * to that location. Used to be able to share an image with another app.
      *
+     * The image is encoded in the background using {@link #getExportFormat()}, and the returned
+     * Uri can be opened right away: until the encoding finishes, readers are served through a
+     * pipe by {@link OverviewImageProvider}.
+     *
      * @param bitmap  The whole bitmap to be shared.
      * @param crop    The section of the bitmap to be shared.
      * @param context The application context, used to interact with file system.
@@ -234,25 +271,33 @@ public class ImageActionUtils {
      */
     @WorkerThread
     public static Uri getImageUri(Bitmap bitmap, Rect crop, Context context, String tag) {
-        clearOldCacheFiles(context);
+        ExportFormat format = getExportFormat();
         Bitmap croppedBitmap = cropBitmap(bitmap, crop);
-        int cropHash = crop == null ? 0 : crop.hashCode();
-        String baseName = BASE_NAME + bitmap.hashCode() + "_" + cropHash + ".png";
-        File parent = new File(context.getCacheDir(), SUB_FOLDER);
-        parent.mkdir();
-        File file = new File(parent, baseName);
-
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            croppedBitmap.compress(Bitmap.CompressFormat.PNG, 100, fos);
+        File file = getExportCache(context).newFile(format.extension);
+        Uri uri = FileProvider.getUriForFile(context, AUTHORITY, file);
+
+        try {
+            OverviewImageProvider.startExport(
+                    uri, file, croppedBitmap, format.compressFormat, 100, tag);
         } catch (IOException e) {
             Log.e(tag, "Error saving image", e);
         }
+        return uri;
+    }
 
-        return FileProvider.getUriForFile(context, AUTHORITY, file);
+    private static synchronized ImageExportCache getExportCache(Context context) {
+        if (sExportCache == null) {
+            sExportCache = new ImageExportCache(new File(context.getCacheDir(), SUB_FOLDER),
+                    BASE_NAME, MAX_CACHE_FILES, MIN_FILE_LIFE, FILE_LIFE);
+        }
+        return sExportCache;
     }
 
     /**
-     * Crops the bitmap to the provided size and returns a software backed bitmap whenever possible.
+     * Crops the bitmap to the provided size. Software bitmaps are cropped in memory; hardware
+     * bitmaps are cropped on the GPU and stay hardware backed, unless
+     * {@link com.android.launcher3.config.FeatureFlags#ENABLE_HARDWARE_THUMBNAIL_PATH} is
+     * disabled, in which case a software copy is returned.
      *
      * @param bitmap The bitmap to be cropped.
      * @param crop   The section of the bitmap in the crop.
@@ -272,14 +317,28 @@ public class ImageActionUtils {
                         crop.height());
             }
 
-            // For hardware bitmaps, use the Picture API to directly create a software bitmap
+            // For hardware bitmaps, use the Picture API so that the source buffer is only
+            // referenced by the recording and never read back in full.
             Picture picture = new Picture();
             Canvas canvas = picture.beginRecording(crop.width(), crop.height());
             canvas.drawBitmap(bitmap, -crop.left, -crop.top, null);
             picture.endRecording();
             return Bitmap.createBitmap(picture, crop.width(), crop.height(),
-                    Bitmap.Config.ARGB_8888);
+                    ENABLE_HARDWARE_THUMBNAIL_PATH.get()
+                            ? Bitmap.Config.HARDWARE : Bitmap.Config.ARGB_8888);
+        }
+    }
+
+    /**
+     * Returns a hardware backed version of the provided bitmap, copying it only if it is not
+     * already backed by a {@link android.hardware.HardwareBuffer}.
+     */
+    public static Bitmap toHardwareBitmap(Bitmap bitmap) {
+        if (bitmap.getConfig() == Bitmap.Config.HARDWARE) {
+            return bitmap;
         }
+        Bitmap copy = bitmap.copy(Bitmap.Config.HARDWARE, false /* isMutable */);
+        return copy != null ? copy : bitmap;
     }
 
     /**
@@ -290,14 +349,15 @@ public class ImageActionUtils {
         if (intent == null) {
             intent = new Intent();
         }
+        String mimeType = getExportFormat().mimeType;
         ClipData clipdata = new ClipData(new ClipDescription("content",
-                new String[]{"image/png"}),
+                new String[]{mimeType}),
                 new ClipData.Item(uri));
         intent.setAction(Intent.ACTION_SEND)
                 .setComponent(null)
                 .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK)
                 .addFlags(FLAG_GRANT_READ_URI_PERMISSION)
-                .setType("image/png")
+                .setType(mimeType)
                 .putExtra(Intent.EXTRA_STREAM, uri)
                 .setClipData(clipdata);
         return new Intent[]{Intent.createChooser(intent, null).addFlags(FLAG_ACTIVITY_NEW_TASK)};
@@ -308,31 +368,17 @@ public class ImageActionUtils {
         if (intent == null) {
             intent = new Intent();
         }
+        String mimeType = getExportFormat().mimeType;
         ClipData clipdata = new ClipData(new ClipDescription("content",
-                new String[]{"image/png"}),
+                new String[]{mimeType}),
                 new ClipData.Item(uri));
         intent.setAction(Intent.ACTION_SEND)
                 .setComponent(new ComponentName(Utilities.GSA_PACKAGE, Utilities.LENS_SHARE_ACTIVITY))
                 .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK)
                 .addFlags(FLAG_GRANT_READ_URI_PERMISSION)
-                .setType("image/png")
+                .setType(mimeType)
                 .putExtra(Intent.EXTRA_STREAM, uri)
                 .setClipData(clipdata);
         return new Intent[]{Intent.createChooser(intent, null).addFlags(FLAG_ACTIVITY_NEW_TASK)};
     }
-
-    private static void clearOldCacheFiles(Context context) {
-        THREAD_POOL_EXECUTOR.execute(() -> {
-            File parent = new File(context.getCacheDir(), SUB_FOLDER);
-            File[] files = parent.listFiles((File f, String s) -> s.startsWith(BASE_NAME));
-            if (files != null) {
-                for (File file: files) {
-                    if (file.lastModified() + FILE_LIFE < System.currentTimeMillis()) {
-                        file.delete();
-                    }
-                }
-            }
-        });
-
-    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.quickstep.util;
+
+import androidx.annotation.WorkerThread;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps an in-memory index of the images exported to the cache directory, so that old files can
+ * be evicted without scanning the directory on every export. The directory is only listed once,
+ * when the index is first used.
+ */
+class ImageExportCache {
+
+    private final File mDir;
+    private final String mPrefix;
+    private final int mMaxFiles;
+    private final long mMinFileLife;
+    private final long mFileLife;
+
+    // Exported files, ordered from oldest to newest
+    private final ArrayDeque<File> mFiles = new ArrayDeque<>();
+    private boolean mLoaded;
+    private long mNextFileId;
+
+    ImageExportCache(File dir, String prefix, int maxFiles, long minFileLife, long fileLife) {
+        mDir = dir;
+        mPrefix = prefix;
+        mMaxFiles = maxFiles;
+        mMinFileLife = minFileLife;
+        mFileLife = fileLife;
+    }
+
+    /**
+     * Returns a new file with a unique name to use for an export and records it in the index,
+     * evicting the oldest entries beyond the configured bounds. Files younger than the minimum
+     * life are never evicted, so that the apps they were shared with can still read them.
+     */
+    @WorkerThread
+    synchronized File newFile(String extension) {
+        ensureLoaded();
+        // Never reuse the name of an existing file, as it may still be read by the app it was
+        // shared with, or be written by another export
+        File file;
+        do {
+            file = new File(mDir, mPrefix + mNextFileId++ + extension);
+        } while (file.exists());
+        mFiles.addLast(file);
+        trim();
+        return file;
+    }
+
+    private void ensureLoaded() {
+        if (mLoaded) {
+            return;
+        }
+        mLoaded = true;
+        // Start from the current time so that names from previous processes are rarely probed
+        mNextFileId = System.currentTimeMillis();
+        mDir.mkdirs();
+        File[] files = mDir.listFiles((File f, String s) -> s.startsWith(mPrefix));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            mFiles.addAll(Arrays.asList(files));
+        }
+    }
+
+    private void trim() {
+        long now = System.currentTimeMillis();
+        long expiry = now - mFileLife;
+        long minExpiry = now - mMinFileLife;
+        while (mFiles.size() > 1) {
+            long lastModified = mFiles.peekFirst().lastModified();
+            if (lastModified < expiry
+                    || (mFiles.size() > mMaxFiles && lastModified < minExpiry)) {
+                mFiles.pollFirst().delete();
+            } else {
+                // The files are ordered, so the following ones are younger
+                break;
+            }
+        }
+    }
+}
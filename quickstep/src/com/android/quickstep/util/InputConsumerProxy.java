@@ -29,6 +29,7 @@ import com.android.quickstep.InputConsumer;
 import com.android.quickstep.SimpleOrientationTouchTransformer;
 import com.android.systemui.shared.system.InputConsumerController;
 
+import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
 /**
@@ -39,8 +40,8 @@ public class InputConsumerProxy {
 
     private static final String TAG = "InputConsumerProxy";
 
-    private final Context mContext;
-    private final Supplier<Integer> mRotationSupplier;
+    private final SimpleOrientationTouchTransformer mTouchTransformer;
+    private final IntSupplier mRotationSupplier;
     private final InputConsumerController mInputConsumerController;
     private Runnable mCallback;
     private Supplier<InputConsumer> mConsumerSupplier;
@@ -52,10 +53,10 @@ public class InputConsumerProxy {
     private boolean mTouchInProgress = false;
     private boolean mDestroyPending = false;
 
-    public InputConsumerProxy(Context context, Supplier<Integer> rotationSupplier,
+    public InputConsumerProxy(Context context, IntSupplier rotationSupplier,
             InputConsumerController inputConsumerController,
             Runnable callback, Supplier<InputConsumer> consumerSupplier) {
-        mContext = context;
+        mTouchTransformer = SimpleOrientationTouchTransformer.INSTANCE.get(context);
         mRotationSupplier = rotationSupplier;
         mInputConsumerController = inputConsumerController;
         mCallback = callback;
@@ -114,8 +115,7 @@ public class InputConsumerProxy {
             }
         }
         if (mInputConsumer != null) {
-            SimpleOrientationTouchTransformer.INSTANCE.get(mContext).transform(ev,
-                    mRotationSupplier.get());
+            mTouchTransformer.transform(ev, mRotationSupplier.getAsInt());
             mInputConsumer.onMotionEvent(ev);
         }
 
@@ -125,8 +125,7 @@ public class InputConsumerProxy {
     private void onInputConsumerHoverEvent(MotionEvent ev) {
         initInputConsumerIfNeeded();
         if (mInputConsumer != null) {
-            SimpleOrientationTouchTransformer.INSTANCE.get(mContext).transform(ev,
-                    mRotationSupplier.get());
+            mTouchTransformer.transform(ev, mRotationSupplier.getAsInt());
             mInputConsumer.onHoverEvent(ev);
         }
     }
@@ -52,7 +52,8 @@ public class MotionPauseDetector {
     private final Context mContext;
     private final SystemVelocityProvider mVelocityProvider;
 
-    private Float mPreviousVelocity = null;
+    private float mPreviousVelocity;
+    private boolean mHasPreviousVelocity;
 
     private OnMotionPauseListener mOnMotionPauseListener;
     private boolean mIsPaused;
@@ -114,7 +115,9 @@ public class MotionPauseDetector {
     }
 
     /**
-     * Computes velocity and acceleration to determine whether the motion is paused.
+     * Computes velocity and acceleration to determine whether the motion is paused. When the event
+     * is batched, all of its historical samples are consumed by the velocity tracker and the pause
+     * is evaluated once for the whole batch.
      * @param ev The motion being tracked.
      * @param pointerIndex Index for the pointer being tracked in the motion event
      */
@@ -124,10 +127,11 @@ public class MotionPauseDetector {
                 : mMakePauseHarderToTrigger ? HARDER_TRIGGER_TIMEOUT : FORCE_PAUSE_TIMEOUT;
         mForcePauseTimeout.setAlarm(timeoutMs);
         float newVelocity = mVelocityProvider.addMotionEvent(ev, ev.getPointerId(pointerIndex));
-        if (mPreviousVelocity != null) {
+        if (mHasPreviousVelocity) {
             checkMotionPaused(newVelocity, mPreviousVelocity, ev.getEventTime());
         }
         mPreviousVelocity = newVelocity;
+        mHasPreviousVelocity = true;
     }
 
     private void checkMotionPaused(float velocity, float prevVelocity, long time) {
@@ -191,7 +195,7 @@ public class MotionPauseDetector {
 
     public void clear() {
         mVelocityProvider.clear();
-        mPreviousVelocity = null;
+        mHasPreviousVelocity = false;
         setOnMotionPauseListener(null);
         mIsPaused = mHasEverBeenPaused = false;
         mSlowStartTime = 0;
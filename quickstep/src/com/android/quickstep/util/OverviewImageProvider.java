@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.quickstep.util;
+
+import static com.android.launcher3.util.Executors.THREAD_POOL_EXECUTOR;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.content.FileProvider;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link FileProvider} used for sharing overview images. Images are encoded into the cache
+ * asynchronously; a client opening an image that is still being encoded is handed the read side
+ * of a pipe which is fed as the encoder makes progress, so the share target can start reading
+ * before the encoding has finished.
+ */
+public class OverviewImageProvider extends FileProvider {
+
+    private static final String TAG = "OverviewImageProvider";
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final Map<Uri, PendingExport> sPendingExports = new ConcurrentHashMap<>();
+
+    /**
+     * Starts encoding the bitmap into the provided file in the background. Until the encoding
+     * completes, opening {@param uri} streams the partially encoded data.
+     */
+    static void startExport(Uri uri, File file, Bitmap bitmap, Bitmap.CompressFormat format,
+            int quality, String tag) throws IOException {
+        PendingExport export = new PendingExport(uri, file, bitmap, format, quality, tag);
+        sPendingExports.put(uri, export);
+        THREAD_POOL_EXECUTOR.execute(export);
+    }
+
+    @Override
+    public Cursor query(@NonNull Uri uri, @Nullable String[] projection,
+            @Nullable String selection, @Nullable String[] selectionArgs,
+            @Nullable String sortOrder) {
+        Cursor cursor = super.query(uri, projection, selection, selectionArgs, sortOrder);
+        if (!sPendingExports.containsKey(uri) || !cursor.moveToFirst()) {
+            return cursor;
+        }
+        // The file is still being encoded, so its final size is unknown
+        String[] columns = cursor.getColumnNames();
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = OpenableColumns.SIZE.equals(columns[i]) ? null : cursor.getString(i);
+        }
+        cursor.close();
+        MatrixCursor result = new MatrixCursor(columns, 1);
+        result.addRow(values);
+        return result;
+    }
+
+    @Override
+    public ParcelFileDescriptor openFile(@NonNull Uri uri, @NonNull String mode)
+            throws FileNotFoundException {
+        PendingExport export = sPendingExports.get(uri);
+        if (export == null || !"r".equals(mode)) {
+            return super.openFile(uri, mode);
+        }
+
+        ParcelFileDescriptor[] pipe;
+        try {
+            pipe = ParcelFileDescriptor.createReliablePipe();
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to create pipe, waiting for encoding to finish", e);
+            export.awaitCompletion();
+            return super.openFile(uri, mode);
+        }
+        ParcelFileDescriptor sink = pipe[1];
+        THREAD_POOL_EXECUTOR.execute(() -> export.streamTo(sink));
+        return pipe[0];
+    }
+
+    /**
+     * An image being encoded into the cache, tracking how many bytes are available for readers.
+     */
+    private static class PendingExport implements Runnable {
+
+        private final Uri mUri;
+        private final File mFile;
+        private final Bitmap mBitmap;
+        private final Bitmap.CompressFormat mFormat;
+        private final int mQuality;
+        private final String mTag;
+        private final OutputStream mOut;
+
+        private long mBytesWritten;
+        private boolean mDone;
+        private boolean mFailed;
+
+        PendingExport(Uri uri, File file, Bitmap bitmap, Bitmap.CompressFormat format,
+                int quality, String tag) throws IOException {
+            mUri = uri;
+            mFile = file;
+            mBitmap = bitmap;
+            mFormat = format;
+            mQuality = quality;
+            mTag = tag;
+            // Create the file synchronously so that readers can always open it.
+            mOut = new FileOutputStream(file);
+        }
+
+        @Override
+        public void run() {
+            boolean success = false;
+            try (OutputStream out = new ProgressOutputStream(mOut)) {
+                success = mBitmap.compress(mFormat, mQuality, out);
+            } catch (IOException e) {
+                Log.e(mTag, "Error saving image", e);
+            }
+            if (!success) {
+                mFile.delete();
+            }
+            synchronized (this) {
+                mFailed = !success;
+                mDone = true;
+                notifyAll();
+            }
+            sPendingExports.remove(mUri);
+        }
+
+        synchronized void awaitCompletion() {
+            while (!mDone) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        @WorkerThread
+        void streamTo(ParcelFileDescriptor sink) {
+            boolean failed = false;
+            try (FileInputStream in = new FileInputStream(mFile);
+                 FileOutputStream out = new FileOutputStream(sink.getFileDescriptor())) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long read = 0;
+                while (true) {
+                    long available;
+                    synchronized (this) {
+                        while (!mDone && mBytesWritten <= read) {
+                            wait();
+                        }
+                        failed = mFailed;
+                        available = mBytesWritten - read;
+                    }
+                    if (failed || available == 0) {
+                        break;
+                    }
+                    int count = in.read(buffer, 0, (int) Math.min(buffer.length, available));
+                    if (count < 0) {
+                        break;
+                    }
+                    out.write(buffer, 0, count);
+                    read += count;
+                }
+            } catch (IOException | InterruptedException e) {
+                // The reader may close its end early, which is not an error on our side.
+                Log.w(mTag, "Stopped streaming image", e);
+                failed = true;
+            }
+
+            try {
+                if (failed) {
+                    sink.closeWithError("Image could not be encoded");
+                } else {
+                    sink.close();
+                }
+            } catch (IOException e) {
+                Log.w(mTag, "Error closing image pipe", e);
+            }
+        }
+
+        /**
+         * Output stream which notifies pending readers of the encoding progress.
+         */
+        private class ProgressOutputStream extends FilterOutputStream {
+
+            ProgressOutputStream(OutputStream out) {
+                super(out);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                onBytesWritten(len);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                onBytesWritten(1);
+            }
+
+            private void onBytesWritten(int count) {
+                synchronized (PendingExport.this) {
+                    mBytesWritten += count;
+                    PendingExport.this.notifyAll();
+                }
+            }
+        }
+    }
+}
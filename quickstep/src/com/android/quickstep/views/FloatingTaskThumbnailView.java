@@ -70,7 +70,14 @@ public class FloatingTaskThumbnailView extends View {
         parent.drawRoundedRect(canvas, mPaint);
     }
 
+    /**
+     * Sets the thumbnail to draw. The bitmap is referenced directly, so hardware backed task
+     * snapshots are drawn without being copied.
+     */
     public void setThumbnail(Bitmap bitmap) {
+        if (bitmap == mBitmap) {
+            return;
+        }
         mBitmap = bitmap;
         if (bitmap != null) {
             mBitmapShader = new BitmapShader(bitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
@@ -19,6 +19,7 @@ package com.android.quickstep.views;
 import static android.view.WindowInsetsController.APPEARANCE_LIGHT_NAVIGATION_BARS;
 import static android.view.WindowInsetsController.APPEARANCE_LIGHT_STATUS_BARS;
 
+import static com.android.launcher3.config.FeatureFlags.ENABLE_HARDWARE_THUMBNAIL_PATH;
 import static com.android.launcher3.config.FeatureFlags.ENABLE_QUICKSTEP_LIVE_TILE;
 import static com.android.systemui.shared.system.WindowManagerWrapper.WINDOWING_MODE_FULLSCREEN;
 
@@ -97,6 +98,9 @@ public class TaskThumbnailView extends View {
     private ThumbnailData mThumbnailData;
     @Nullable
     protected BitmapShader mBitmapShader;
+    // The bitmap currently referenced by mBitmapShader, used to avoid re-creating the shader
+    @Nullable
+    private Bitmap mShaderBitmap;
 
     /** How much this thumbnail is dimmed, 0 not dimmed at all, 1 totally dimmed. */
     private float mDimAlpha = 0f;
@@ -173,8 +177,16 @@ public class TaskThumbnailView extends View {
     private void refresh(boolean shouldRefreshOverlay) {
         if (mThumbnailData != null && mThumbnailData.thumbnail != null) {
             Bitmap bm = mThumbnailData.thumbnail;
-            bm.prepareToDraw();
-            mBitmapShader = new BitmapShader(bm, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            if (mBitmapShader == null || mShaderBitmap != bm
+                    || !ENABLE_HARDWARE_THUMBNAIL_PATH.get()) {
+                // Hardware backed snapshots are already resident on the GPU, so only
+                // software bitmaps need to be uploaded before drawing.
+                if (bm.getConfig() != Bitmap.Config.HARDWARE) {
+                    bm.prepareToDraw();
+                }
+                mBitmapShader = new BitmapShader(bm, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+                mShaderBitmap = bm;
+            }
             mPaint.setShader(mBitmapShader);
             updateThumbnailMatrix();
             if (shouldRefreshOverlay) {
@@ -182,6 +194,7 @@ public class TaskThumbnailView extends View {
             }
         } else {
             mBitmapShader = null;
+            mShaderBitmap = null;
             mThumbnailData = null;
             mPaint.setShader(null);
             getTaskOverlay().reset();
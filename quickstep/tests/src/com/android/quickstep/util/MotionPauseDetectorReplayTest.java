@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.quickstep.util;
+
+import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
+import static androidx.test.platform.app.InstrumentationRegistry.getInstrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+import android.view.MotionEvent;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Replays a recorded swipe up and hold trace through {@link MotionPauseDetector}, once with one
+ * event per input sample and once with the samples batched per vsync, and reports the cost of
+ * each mode.
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class MotionPauseDetectorReplayTest {
+
+    private static final String TAG = "MotionPauseReplay";
+
+    private static final long DOWN_TIME = 1000;
+    private static final long FRAME_MS = 16;
+    private static final int ITERATIONS = 200;
+    private static final float X = 540f;
+
+    // Samples of a swipe up which decelerates and holds, recorded at 120Hz: {time ms, y px}
+    private static final float[][] SWIPE_AND_HOLD_TRACE = {
+            {0, 2200.0f}, {8, 2127.9f}, {16, 2058.2f}, {24, 1991.0f}, {32, 1926.2f},
+            {40, 1863.9f}, {48, 1804.0f}, {56, 1746.6f}, {64, 1691.6f}, {72, 1639.0f},
+            {80, 1588.9f}, {88, 1541.2f}, {96, 1496.0f}, {104, 1453.2f}, {112, 1412.9f},
+            {120, 1375.0f}, {128, 1339.6f}, {136, 1306.6f}, {144, 1276.0f}, {152, 1247.9f},
+            {160, 1222.2f}, {168, 1199.0f}, {176, 1178.2f}, {184, 1159.9f}, {192, 1144.0f},
+            {200, 1130.6f}, {208, 1119.6f}, {216, 1111.0f}, {224, 1104.9f}, {232, 1101.2f},
+            {240, 1100.0f}, {248, 1100.0f}, {256, 1100.3f}, {264, 1099.7f}, {272, 1100.0f},
+            {280, 1100.3f}, {288, 1099.7f}, {296, 1100.0f}, {304, 1100.3f}, {312, 1099.7f},
+            {320, 1100.0f}, {328, 1100.3f}, {336, 1099.7f}, {344, 1100.0f}, {352, 1100.3f},
+            {360, 1099.7f}, {368, 1100.0f}, {376, 1100.3f}, {384, 1099.7f}, {392, 1100.0f},
+            {400, 1100.3f}, {408, 1099.7f}, {416, 1100.0f}, {424, 1100.3f}, {432, 1099.7f},
+            {440, 1100.0f}, {448, 1100.3f}, {456, 1099.7f}, {464, 1100.0f}, {472, 1100.3f},
+    };
+
+    @Test
+    public void batchedReplay_detectsSamePauseAsUnbatched() {
+        getInstrumentation().runOnMainSync(() -> {
+            ReplayResult unbatched = replay(false /* batched */);
+            ReplayResult batched = replay(true /* batched */);
+
+            assertTrue(unbatched.paused);
+            assertEquals(unbatched.paused, batched.paused);
+            assertTrue(batched.eventCount < unbatched.eventCount);
+        });
+    }
+
+    @Test
+    public void replayBenchmark() {
+        getInstrumentation().runOnMainSync(() -> {
+            // Warm up
+            replay(false /* batched */);
+            replay(true /* batched */);
+
+            long unbatchedNanos = 0;
+            long batchedNanos = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                unbatchedNanos += replay(false /* batched */).durationNanos;
+                batchedNanos += replay(true /* batched */).durationNanos;
+            }
+            Log.d(TAG, "Average replay time: unbatched=" + (unbatchedNanos / ITERATIONS)
+                    + "ns, batched=" + (batchedNanos / ITERATIONS) + "ns");
+        });
+    }
+
+    private ReplayResult replay(boolean batched) {
+        MotionPauseDetector detector = new MotionPauseDetector(getApplicationContext());
+        ReplayResult result = new ReplayResult();
+
+        long start = System.nanoTime();
+        MotionEvent event = null;
+        long frameEnd = 0;
+        for (float[] sample : SWIPE_AND_HOLD_TRACE) {
+            long time = DOWN_TIME + (long) sample[0];
+            if (event != null && batched && time <= frameEnd) {
+                event.addBatch(time, X, sample[1], 1f, 1f, 0);
+                continue;
+            }
+            if (event != null) {
+                result.eventCount++;
+                detector.addPosition(event);
+                event.recycle();
+            }
+            event = MotionEvent.obtain(DOWN_TIME, time, MotionEvent.ACTION_MOVE, X, sample[1], 0);
+            frameEnd = time + FRAME_MS - 1;
+        }
+        result.eventCount++;
+        detector.addPosition(event);
+        event.recycle();
+        result.durationNanos = System.nanoTime() - start;
+
+        result.paused = detector.isPaused();
+        detector.clear();
+        return result;
+    }
+
+    private static class ReplayResult {
+        int eventCount;
+        long durationNanos;
+        boolean paused;
+    }
+}
@@ -73,6 +73,7 @@ import com.android.launcher3.model.data.ItemInfo;
 import com.android.launcher3.model.data.ItemInfoWithIcon;
 import com.android.launcher3.model.data.WorkspaceItemInfo;
 import com.android.launcher3.popup.PopupContainerWithArrow;
+import com.android.launcher3.util.LabelLayoutCache;
 import com.android.launcher3.util.SafeCloseable;
 import com.android.launcher3.util.ShortcutUtil;
 import com.android.launcher3.views.ActivityContext;
@@ -413,7 +414,7 @@ public class BubbleTextView extends TextView implements ItemInfoUpdateReceiver,
     @UiThread
     private void applyLabel(ItemInfoWithIcon info) {
         if (mShouldShowLabel) {
-            setText(info.title);
+            setText(LabelLayoutCache.INSTANCE.getLabel(info.title, this));
             if (Utilities.getIsForceWhitelabel(getContext())) {
                setTextColor(Color.WHITE);
             }
@@ -26,6 +26,7 @@ import static com.android.launcher3.Utilities.pxFromSp;
 import static com.android.launcher3.folder.ClippedFolderIconLayoutRule.ICON_OVERLAP_FACTOR;
 
 import android.annotation.SuppressLint;
+import android.app.ActivityManager;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.res.Configuration;
@@ -87,6 +88,9 @@ public class DeviceProfile {
 
     public final float aspectRatio;
 
+    // The maximum number of workspace pages drawn in hardware layers while scrolling
+    public final int maxScrollLayerPages;
+
     public final boolean isScalableGrid;
     private final int mTypeIndex;
 
@@ -102,6 +106,9 @@ public class DeviceProfile {
     private static final float TALL_DEVICE_EXTRA_SPACE_THRESHOLD_DP = 252;
     private static final float TALL_DEVICE_MORE_EXTRA_SPACE_THRESHOLD_DP = 268;
 
+    // Share of the memory class of the device which can be used by the workspace page layers
+    private static final int SCROLL_LAYER_MEMORY_CLASS_DIVISOR = 8;
+
     // Workspace
     public final int desiredWorkspaceHorizontalMarginOriginalPx;
     public int desiredWorkspaceHorizontalMarginPx;
@@ -293,6 +300,7 @@ public class DeviceProfile {
         availableHeightPx =  windowBounds.availableSize.y;
 
         aspectRatio = ((float) Math.max(widthPx, heightPx)) / Math.min(widthPx, heightPx);
+        maxScrollLayerPages = getMaxScrollLayerPages(context);
         boolean isTallDevice = Float.compare(aspectRatio, TALL_DEVICE_ASPECT_RATIO_THRESHOLD) >= 0;
         mQsbCenterFactor = res.getFloat(R.dimen.qsb_center_factor);
 
@@ -921,6 +929,22 @@ public class DeviceProfile {
         return isTwoPanels ? 2 : 1;
     }
 
+    /**
+     * Returns how many workspace pages can be drawn in hardware layers while scrolling: the two
+     * pages shown mid-scroll, plus the adjacent pages if they fit in a share of the memory class.
+     */
+    private int getMaxScrollLayerPages(Context context) {
+        int panelCount = getPanelCount();
+        int minPages = 2 * panelCount;
+        ActivityManager am = context.getSystemService(ActivityManager.class);
+        if (am == null || am.isLowRamDevice()) {
+            return minPages;
+        }
+        long pageBytes = Math.max(1L, (long) (widthPx / panelCount) * heightPx * 4);
+        long budgetBytes = am.getMemoryClass() * 1024L * 1024L / SCROLL_LAYER_MEMORY_CLASS_DIVISOR;
+        return Utilities.boundToRange((int) (budgetBytes / pageBytes), minPages, 4 * panelCount);
+    }
+
     /**
      * Gets the space in px from the bottom of last item in the vertical-bar hotseat to the
      * bottom of the screen.
@@ -1287,6 +1311,7 @@ public class DeviceProfile {
         writer.println(prefix + pxToDpStr("mInsets.bottom", mInsets.bottom));
 
         writer.println(prefix + "\taspectRatio:" + aspectRatio);
+        writer.println(prefix + "\tmaxScrollLayerPages:" + maxScrollLayerPages);
 
         writer.println(prefix + "\tisScalableGrid:" + isScalableGrid);
 
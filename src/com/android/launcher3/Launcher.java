@@ -185,12 +185,15 @@ import com.android.launcher3.util.ActivityTracker;
 import com.android.launcher3.util.ComponentKey;
 import com.android.launcher3.util.IntArray;
 import com.android.launcher3.util.IntSet;
+import com.android.launcher3.util.IntSparseArrayMap;
+import com.android.launcher3.util.LabelLayoutCache;
 import com.android.launcher3.util.OnboardingPrefs;
 import com.android.launcher3.util.PackageManagerHelper;
 import com.android.launcher3.util.PackageUserKey;
 import com.android.launcher3.util.PendingRequestArgs;
 import com.android.launcher3.util.RunnableList;
 import com.android.launcher3.util.SafeCloseable;
+import com.android.launcher3.util.SettingsCache;
 import com.android.launcher3.util.SystemUiController;
 import com.android.launcher3.util.Themes;
 import com.android.launcher3.util.Thunk;
@@ -199,6 +202,7 @@ import com.android.launcher3.util.TraceHelper;
 import com.android.launcher3.util.UiThreadHelper;
 import com.android.launcher3.util.ViewOnDrawExecutor;
 import com.android.launcher3.views.ActivityContext;
+import com.android.launcher3.views.FloatingIconLoader;
 import com.android.launcher3.views.FloatingIconView;
 import com.android.launcher3.views.FloatingSurfaceView;
 import com.android.launcher3.views.OptionsPopupView;
@@ -224,6 +228,7 @@ import com.android.systemui.plugins.shared.LauncherOverlayManager.LauncherOverla
 import java.io.FileDescriptor;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -232,6 +237,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -1749,6 +1755,7 @@ public class Launcher extends StatefulActivity<LauncherState>
 
         mModel.removeCallbacks(this);
         mRotationHelper.destroy();
+        mPopupDataProvider.destroy();
 
         try {
             mAppWidgetHost.stopListening();
@@ -2275,6 +2282,7 @@ public class Launcher extends StatefulActivity<LauncherState>
      */
     @Override
     public void clearPendingBinds() {
+        mWorkspace.clearLazyPageBindTasks();
         if (mPendingExecutor != null) {
             mPendingExecutor.cancel();
             mPendingExecutor = null;
@@ -2671,7 +2679,7 @@ public class Launcher extends StatefulActivity<LauncherState>
 
                 item.minSpanX = appWidgetInfo.minSpanX;
                 item.minSpanY = appWidgetInfo.minSpanY;
-                view = mAppWidgetHost.createView(this, item.appWidgetId, appWidgetInfo);
+                view = mAppWidgetHost.createView(this, item, appWidgetInfo);
             } else if (!item.hasRestoreFlag(LauncherAppWidgetInfo.FLAG_ID_NOT_VALID)
                     && appWidgetInfo != null) {
                 mAppWidgetHost.addPendingView(item.appWidgetId,
@@ -2748,6 +2756,11 @@ public class Launcher extends StatefulActivity<LauncherState>
         }
     }
 
+    @Override
+    public void bindPagesLazily(IntSparseArrayMap<RunnableList> pageBindTasks) {
+        mWorkspace.setLazyPageBindTasks(pageBindTasks);
+    }
+
     /**
      * Callback saying that there aren't any more items to bind.
      *
@@ -2779,6 +2792,11 @@ public class Launcher extends StatefulActivity<LauncherState>
                 mDeviceProfile.inv.numFolderColumns * mDeviceProfile.inv.numFolderRows);
         getViewCache().setCacheSize(R.layout.folder_page, 2);
 
+        // Prepare the all apps icons once the workspace is done
+        mAppsView.prewarmIconViews();
+        // The widgets which were not bound again don't need their previous views anymore
+        mAppWidgetHost.clearRecycledViews();
+
         TraceHelper.INSTANCE.endSection(traceToken);
     }
 
@@ -2908,6 +2926,8 @@ public class Launcher extends StatefulActivity<LauncherState>
     @TargetApi(Build.VERSION_CODES.S)
     public void bindAllApplications(AppInfo[] apps, int flags) {
         mAppsView.getAppsStore().setApps(apps, flags);
+        LabelLayoutCache.INSTANCE.prewarm(
+                Arrays.stream(apps).map(app -> app.title).collect(Collectors.toList()));
         PopupContainerWithArrow.dismissInvalidPopup(this);
         if (Utilities.ATLEAST_S) {
             Trace.endAsyncSection(DISPLAY_ALL_APPS_TRACE_METHOD_NAME,
@@ -2967,6 +2987,8 @@ public class Launcher extends StatefulActivity<LauncherState>
      */
     @Override
     public void bindWorkspaceComponentsRemoved(Predicate<ItemInfo> matcher) {
+        // The pending bind tasks may include removed items
+        mWorkspace.bindAllLazyPages();
         mWorkspace.removeItemsByMatcher(matcher);
         mDragController.onAppsRemoved(matcher);
         PopupContainerWithArrow.dismissInvalidPopup(this);
@@ -3039,6 +3061,9 @@ public class Launcher extends StatefulActivity<LauncherState>
         mStateManager.dump(prefix, writer);
         mPopupDataProvider.dump(prefix, writer);
         mDeviceProfile.dump(prefix, writer);
+        SettingsCache.INSTANCE.get(this).dump(prefix, writer);
+        FloatingIconLoader.INSTANCE.dump(prefix, writer);
+        LabelLayoutCache.INSTANCE.dump(prefix, writer);
 
         try {
             FileLog.flushAll(writer);
@@ -59,9 +59,11 @@ import com.android.launcher3.model.UserLockStateChangedTask;
 import com.android.launcher3.model.data.AppInfo;
 import com.android.launcher3.model.data.ItemInfo;
 import com.android.launcher3.model.data.WorkspaceItemInfo;
+import com.android.launcher3.pm.InstallProgressAggregator;
 import com.android.launcher3.pm.InstallSessionTracker;
 import com.android.launcher3.pm.PackageInstallInfo;
 import com.android.launcher3.pm.UserCache;
+import com.android.launcher3.shortcuts.DeepShortcutCache;
 import com.android.launcher3.shortcuts.ShortcutRequest;
 import com.android.launcher3.testing.TestProtocol;
 import com.android.launcher3.util.IntSet;
@@ -120,6 +122,11 @@ public class LauncherModel extends LauncherApps.Callback implements InstallSessi
 
     private final ModelDelegate mModelDelegate;
 
+    // Coalesces install session updates into batched model tasks
+    private final InstallProgressAggregator mInstallProgressAggregator =
+            new InstallProgressAggregator(MODEL_EXECUTOR.getHandler(),
+                    infos -> enqueueModelUpdateTask(new PackageInstallStateChangedTask(infos)));
+
     // Runnable to check if the shortcuts permission has changed.
     private final Runnable mDataValidationCheck = new Runnable() {
         @Override
@@ -142,6 +149,14 @@ public class LauncherModel extends LauncherApps.Callback implements InstallSessi
         return mModelDelegate;
     }
 
+    /**
+     * Returns the cache of the shortcuts of all launcher activities, which can be read on any
+     * thread.
+     */
+    public DeepShortcutCache getDeepShortcutCache() {
+        return mBgDataModel.deepShortcutCache;
+    }
+
     /**
      * Adds the provided items to the workspace.
      */
@@ -487,7 +502,7 @@ public class LauncherModel extends LauncherApps.Callback implements InstallSessi
 
     @Override
     public void onPackageStateChanged(PackageInstallInfo installInfo) {
-        enqueueModelUpdateTask(new PackageInstallStateChangedTask(installInfo));
+        mInstallProgressAggregator.onPackageStateChanged(installInfo);
     }
 
     /**
@@ -649,6 +664,7 @@ public class LauncherModel extends LauncherApps.Callback implements InstallSessi
             writer.println();
         }
         mModelDelegate.dump(prefix, fd, writer, args);
+        mInstallProgressAggregator.dump(prefix, writer);
         mBgDataModel.dump(prefix, fd, writer, args);
     }
 
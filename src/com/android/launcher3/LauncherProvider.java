@@ -311,8 +311,9 @@ public class LauncherProvider extends ContentProvider {
                 ContentProviderOperation op = operations.get(i);
                 results[i] = op.apply(this, results, i);
 
-                isAddOrDelete |= (op.isInsert() || op.isDelete()) &&
-                        results[i].count != null && results[i].count > 0;
+                // Inserts report their row uri, while deletes report their count
+                isAddOrDelete |= (op.isInsert() && results[i].uri != null)
+                        || (op.isDelete() && results[i].count != null && results[i].count > 0);
             }
             if (isAddOrDelete) {
                 onAddOrDeleteOp(t.getDb());
@@ -23,6 +23,7 @@ import com.android.launcher3.graphics.BitmapCreationCheck;
 import com.android.launcher3.graphics.IconShape;
 import com.android.launcher3.logging.FileLog;
 import com.android.launcher3.util.ResourceBasedOverride;
+import com.android.launcher3.util.SettingsCache;
 
 /**
  * Utility class to handle one time initializations of the main process
@@ -39,6 +40,7 @@ public class MainProcessInitializer implements ResourceBasedOverride {
         FileLog.setDir(context.getApplicationContext().getFilesDir());
         FeatureFlags.initialize(context);
         IconShape.init(context);
+        SettingsCache.INSTANCE.get(context).prefetch(SettingsCache.STARTUP_KEYS);
 
         if (BitmapCreationCheck.ENABLED) {
             BitmapCreationCheck.startTracking(context);
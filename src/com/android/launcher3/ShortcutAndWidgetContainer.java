@@ -32,9 +32,17 @@ import android.view.ViewGroup;
 
 import com.android.launcher3.CellLayout.ContainerType;
 import com.android.launcher3.folder.FolderIcon;
+import com.android.launcher3.model.data.ItemInfo;
+import com.android.launcher3.util.LauncherBindableItemsContainer.ItemOperator;
+import com.android.launcher3.util.PackageUserKey;
 import com.android.launcher3.views.ActivityContext;
 import com.android.launcher3.widget.NavigableAppWidgetHostView;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
 public class ShortcutAndWidgetContainer extends ViewGroup implements FolderIcon.FolderIconParent {
     static final String TAG = "ShortcutAndWidgetContainer";
 
@@ -58,6 +66,11 @@ public class ShortcutAndWidgetContainer extends ViewGroup implements FolderIcon.
     private final ActivityContext mActivity;
     private boolean mInvertIfRtl = false;
 
+    // Children indexed by the package of their item, built lazily and discarded whenever a child
+    // is added or removed. Folder icons are kept separately as their contents can change.
+    private HashMap<PackageUserKey, ArrayList<View>> mPackageIndex;
+    private final ArrayList<View> mFolderIcons = new ArrayList<>();
+
     public ShortcutAndWidgetContainer(Context context, @ContainerType int containerType) {
         super(context);
         mActivity = ActivityContext.lookupContext(context);
@@ -221,6 +234,62 @@ public class ShortcutAndWidgetContainer extends ViewGroup implements FolderIcon.
         return super.onInterceptTouchEvent(ev);
     }
 
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        mPackageIndex = null;
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        mPackageIndex = null;
+    }
+
+    /**
+     * Applies {@param op} to all the folder icons in this container, and to the other children
+     * whose package matches {@param packages}. Unlike walking all the children, this only tests
+     * each package present in the container once.
+     */
+    public void mapOverItemsForPackages(Predicate<PackageUserKey> packages, ItemOperator op) {
+        if (mPackageIndex == null) {
+            buildPackageIndex();
+        }
+        for (int i = mFolderIcons.size() - 1; i >= 0; i--) {
+            View folderIcon = mFolderIcons.get(i);
+            op.evaluate((ItemInfo) folderIcon.getTag(), folderIcon);
+        }
+        for (Map.Entry<PackageUserKey, ArrayList<View>> entry : mPackageIndex.entrySet()) {
+            if (packages.test(entry.getKey())) {
+                ArrayList<View> views = entry.getValue();
+                for (int i = views.size() - 1; i >= 0; i--) {
+                    View view = views.get(i);
+                    op.evaluate((ItemInfo) view.getTag(), view);
+                }
+            }
+        }
+    }
+
+    private void buildPackageIndex() {
+        mPackageIndex = new HashMap<>();
+        mFolderIcons.clear();
+        int count = getChildCount();
+        for (int i = 0; i < count; i++) {
+            View child = getChildAt(i);
+            if (!(child.getTag() instanceof ItemInfo)) {
+                continue;
+            }
+            if (child instanceof FolderIcon) {
+                mFolderIcons.add(child);
+                continue;
+            }
+            PackageUserKey key = PackageUserKey.fromItemInfo((ItemInfo) child.getTag());
+            if (key != null) {
+                mPackageIndex.computeIfAbsent(key, k -> new ArrayList<>()).add(child);
+            }
+        }
+    }
+
     @Override
     public boolean shouldDelayChildPressedState() {
         return false;
@@ -249,6 +249,9 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
     private SparseArray<Parcelable> mSavedStates;
     private final IntArray mRestoredPages = new IntArray();
 
+    // The bind tasks of the pages which are not bound yet, indexed by screen id
+    private IntSparseArrayMap<RunnableList> mLazyPageBindTasks = new IntSparseArrayMap<>();
+
     private float mCurrentScale;
     private float mTransitionProgress;
 
@@ -540,9 +543,16 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
         CellLayout cl = ((CellLayout) child);
         cl.setOnInterceptTouchListener(this);
         cl.setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+        mWallpaperOffset.invalidatePageCounts();
         super.onViewAdded(child);
     }
 
+    @Override
+    public void onViewRemoved(View child) {
+        mWallpaperOffset.invalidatePageCounts();
+        super.onViewRemoved(child);
+    }
+
     /**
      * Initializes and binds the first page
      */
@@ -584,6 +594,7 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
 
         // Remove the pages and clear the screen models
         removeFolderListeners();
+        mLazyPageBindTasks.clear();
         removeAllViews();
         mScreenOrder.clear();
         mWorkspaceScreens.clear();
@@ -746,6 +757,7 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
             mWorkspaceScreens.put(newScreenId, screen);
             mScreenOrder.add(newScreenId);
         }
+        mWallpaperOffset.invalidatePageCounts();
     }
 
     public void removeExtraEmptyScreen(boolean stripEmptyScreens) {
@@ -853,6 +865,7 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
 
         mWorkspaceScreens.put(newScreenId, cl);
         mScreenOrder.add(newScreenId);
+        mWallpaperOffset.invalidatePageCounts();
 
         return newScreenId;
     }
@@ -949,9 +962,10 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
         for (int i = 0; i < total; i++) {
             int id = mWorkspaceScreens.keyAt(i);
             CellLayout cl = mWorkspaceScreens.valueAt(i);
-            // FIRST_SCREEN_ID can never be removed.
+            // FIRST_SCREEN_ID can never be removed, and pages which are not bound yet are not empty
             if ((!Utilities.showQuickspace(getContext()) || id > FIRST_SCREEN_ID)
-                    && cl.getShortcutsAndWidgets().getChildCount() == 0) {
+                    && cl.getShortcutsAndWidgets().getChildCount() == 0
+                    && !mLazyPageBindTasks.containsKey(id)) {
                 removeScreens.add(id);
             }
         }
@@ -1002,6 +1016,7 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
                 mScreenOrder.add(extraScreenId);
             }
         }
+        mWallpaperOffset.invalidatePageCounts();
 
         if (pageShift >= 0) {
             setCurrentPage(currentPage - pageShift);
@@ -1165,6 +1180,7 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
         updatePageAlphaValues();
         updatePageScrollValues();
         enableHwLayersOnVisiblePages();
+        bindLazyPagesNearViewport();
     }
 
     public void showPageIndicatorAtCurrentScroll() {
@@ -1481,6 +1497,27 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
                 }
             }
 
+            if (FeatureFlags.ENABLE_SCROLL_LAYER_CACHING.get() && !mIsSwitchingState
+                    && leftScreen >= 0) {
+                // While scrolling, also keep the adjacent pages in layers, starting in the scroll
+                // direction, so that layers are not rebuilt when pages are scrolled back and forth
+                int maxPages = mLauncher.getDeviceProfile().maxScrollLayerPages;
+                int panelCount = getPanelCount();
+                boolean expandLeft = getNextPage() < leftScreen;
+                while (rightScreen - leftScreen + 1 + panelCount <= maxPages) {
+                    boolean canExpandLeft = leftScreen > 0;
+                    boolean canExpandRight = rightScreen < screenCount - 1;
+                    if (canExpandLeft && (expandLeft || !canExpandRight)) {
+                        leftScreen = Math.max(0, leftScreen - panelCount);
+                    } else if (canExpandRight) {
+                        rightScreen = Math.min(screenCount - 1, rightScreen + panelCount);
+                    } else {
+                        break;
+                    }
+                    expandLeft = !expandLeft;
+                }
+            }
+
             for (int i = 0; i < screenCount; i++) {
                 final CellLayout layout = (CellLayout) getPageAt(i);
                 // enable layers between left and right screen inclusive.
@@ -3137,7 +3174,70 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
             }
         }
         mRestoredPages.clear();
-        mSavedStates = null;
+        if (mLazyPageBindTasks.isEmpty()) {
+            mSavedStates = null;
+        }
+    }
+
+    /**
+     * Sets the bind tasks of the pages which are bound once they are scrolled within the lazy bind
+     * window of the visible pages, indexed by screen id.
+     */
+    public void setLazyPageBindTasks(IntSparseArrayMap<RunnableList> pageBindTasks) {
+        mLazyPageBindTasks = pageBindTasks;
+        bindLazyPagesNearViewport();
+    }
+
+    /**
+     * Drops the bind tasks of the pages which are not bound yet, when the workspace is rebound.
+     */
+    public void clearLazyPageBindTasks() {
+        mLazyPageBindTasks.clear();
+    }
+
+    /**
+     * Binds all the pages which are not bound yet.
+     */
+    public void bindAllLazyPages() {
+        while (!mLazyPageBindTasks.isEmpty()) {
+            bindLazyPage(mLazyPageBindTasks.keyAt(0));
+        }
+    }
+
+    private void bindLazyPagesNearViewport() {
+        if (mLazyPageBindTasks.isEmpty()) {
+            return;
+        }
+        int[] visibleRange = getVisibleChildrenRange();
+        int first = visibleRange[0];
+        int last = visibleRange[1];
+        if (first < 0) {
+            // Not laid out yet
+            first = last = getNextPage();
+        }
+        int window = getResources().getInteger(R.integer.config_workspaceLazyBindPageWindow)
+                * getPanelCount();
+        int end = Math.min(getPageCount() - 1, last + window);
+        for (int i = Math.max(0, first - window); i <= end; i++) {
+            bindLazyPage(getScreenIdForPageIndex(i));
+        }
+    }
+
+    private void bindLazyPage(int screenId) {
+        RunnableList tasks = mLazyPageBindTasks.get(screenId);
+        if (tasks == null) {
+            return;
+        }
+        mLazyPageBindTasks.remove(screenId);
+        tasks.executeAllAndDestroy();
+
+        CellLayout cl = getScreenWithId(screenId);
+        if (mSavedStates != null && cl != null) {
+            cl.restoreInstanceState(mSavedStates);
+        }
+        if (mLazyPageBindTasks.isEmpty()) {
+            mSavedStates = null;
+        }
     }
 
     @Override
@@ -3326,7 +3426,11 @@ public class Workspace<T extends View & PageIndicator> extends PagedView<T>
             return false;
         };
 
-        mapOverItems(op);
+        for (CellLayout layout : getWorkspaceAndHotseatCellLayouts()) {
+            if (layout != null) {
+                layout.getShortcutsAndWidgets().mapOverItemsForPackages(updatedDots, op);
+            }
+        }
         Folder folder = Folder.getOpen(mLauncher);
         if (folder != null) {
             folder.iterateOverItems(op);
@@ -17,9 +17,11 @@ package com.android.launcher3.allapps;
 
 import static android.view.View.MeasureSpec.UNSPECIFIED;
 
+import static com.android.launcher3.allapps.BaseAllAppsAdapter.VIEW_TYPE_ICON;
 import static com.android.launcher3.logging.StatsLogManager.LauncherEvent.LAUNCHER_ALLAPPS_SCROLLED;
 import static com.android.launcher3.logging.StatsLogManager.LauncherEvent.LAUNCHER_ALLAPPS_VERTICAL_SWIPE_BEGIN;
 import static com.android.launcher3.logging.StatsLogManager.LauncherEvent.LAUNCHER_ALLAPPS_VERTICAL_SWIPE_END;
+import static com.android.launcher3.util.Executors.MAIN_EXECUTOR;
 import static com.android.launcher3.util.LogConfig.SEARCH_LOGGING;
 import static com.android.launcher3.util.UiThreadHelper.hideKeyboardAsync;
 
@@ -27,6 +29,8 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import android.os.MessageQueue.IdleHandler;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.SparseIntArray;
@@ -62,6 +66,7 @@ public class AllAppsRecyclerView extends FastScrollRecyclerView {
     private final SparseIntArray mViewHeights = new SparseIntArray();
     private final SparseIntArray mCachedScrollPositions = new SparseIntArray();
     private final AllAppsFastScrollHelper mFastScrollHelper;
+    private IdleHandler mPrewarmIdleHandler;
 
 
     private final AdapterDataObserver mObserver = new RecyclerView.AdapterDataObserver() {
@@ -134,13 +139,64 @@ public class AllAppsRecyclerView extends FastScrollRecyclerView {
         pool.setMaxRecycledViews(AllAppsGridAdapter.VIEW_TYPE_EMPTY_SEARCH, 1);
         pool.setMaxRecycledViews(AllAppsGridAdapter.VIEW_TYPE_ALL_APPS_DIVIDER, 1);
         pool.setMaxRecycledViews(AllAppsGridAdapter.VIEW_TYPE_SEARCH_MARKET, 1);
-        pool.setMaxRecycledViews(AllAppsGridAdapter.VIEW_TYPE_ICON, approxRows
-                * (mNumAppsPerRow + 1));
+        pool.setMaxRecycledViews(AllAppsGridAdapter.VIEW_TYPE_ICON, Math.max(
+                approxRows * (mNumAppsPerRow + 1), getPrewarmIconCount(grid)));
 
         mViewHeights.clear();
         mViewHeights.put(AllAppsGridAdapter.VIEW_TYPE_ICON, grid.allAppsCellHeightPx);
     }
 
+    /**
+     * Returns the number of icons needed to fill the visible part of the list, plus one row which
+     * is partially visible while scrolling.
+     */
+    private static int getPrewarmIconCount(DeviceProfile grid) {
+        if (grid.allAppsCellHeightPx <= 0) {
+            return 0;
+        }
+        int visibleRows = (int) Math.ceil((float) grid.availableHeightPx
+                / grid.allAppsCellHeightPx);
+        return (visibleRows + 1) * grid.numShownAllAppsColumns;
+    }
+
+    /**
+     * Creates the icon views needed to display the first screen of the list and adds them to the
+     * view pool, one row at a time when the main thread is idle. This stops as soon as the list
+     * lays out its own views.
+     */
+    public void prewarmIconViews() {
+        if (mPrewarmIdleHandler != null || getAdapter() == null) {
+            return;
+        }
+        DeviceProfile grid = ActivityContext.lookupContext(getContext()).getDeviceProfile();
+        int targetCount = getPrewarmIconCount(grid);
+        updatePoolSize();
+        mPrewarmIdleHandler = new IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                RecycledViewPool pool = getRecycledViewPool();
+                Adapter<?> adapter = getAdapter();
+                if (adapter == null || getChildCount() > 0) {
+                    mPrewarmIdleHandler = null;
+                    return false;
+                }
+                for (int i = 0; i < grid.numShownAllAppsColumns
+                        && pool.getRecycledViewCount(VIEW_TYPE_ICON) < targetCount; i++) {
+                    pool.putRecycledView(adapter.createViewHolder(
+                            AllAppsRecyclerView.this, VIEW_TYPE_ICON));
+                }
+                if (pool.getRecycledViewCount(VIEW_TYPE_ICON) >= targetCount) {
+                    mPrewarmIdleHandler = null;
+                } else {
+                    // Idle handlers only run once per idle period, post a message to get the
+                    // next one.
+                    MAIN_EXECUTOR.post(() -> Looper.myQueue().addIdleHandler(this));
+                }
+                return false;
+            }
+        };
+        Looper.myQueue().addIdleHandler(mPrewarmIdleHandler);
+    }
 
     @Override
     public void onDraw(Canvas c) {
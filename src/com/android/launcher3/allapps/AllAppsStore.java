@@ -19,7 +19,9 @@ import static com.android.launcher3.model.data.AppInfo.COMPONENT_KEY_COMPARATOR;
 import static com.android.launcher3.model.data.AppInfo.EMPTY_ARRAY;
 import static com.android.launcher3.model.data.ItemInfoWithIcon.FLAG_SHOW_DOWNLOAD_PROGRESS_MASK;
 
-import android.view.View;
+import android.content.ComponentName;
+import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.view.ViewGroup;
 
 import androidx.annotation.Nullable;
@@ -32,7 +34,9 @@ import com.android.launcher3.util.PackageUserKey;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -56,6 +60,14 @@ public class AllAppsStore {
     private final ArrayList<ViewGroup> mIconContainers = new ArrayList<>();
     private int mModelFlags;
 
+    // Icons bound by the icon containers, indexed by the package and component they are bound to,
+    // so that updates only visit the affected icons instead of every child of every container.
+    private final ArrayMap<BubbleTextView, ComponentKey> mBoundIcons = new ArrayMap<>();
+    private final HashMap<PackageUserKey, ArraySet<BubbleTextView>> mIconsByPackage =
+            new HashMap<>();
+    private final HashMap<ComponentKey, ArraySet<BubbleTextView>> mIconsByComponent =
+            new HashMap<>();
+
     private int mDeferUpdatesFlags = 0;
     private boolean mUpdatePending = false;
 
@@ -141,15 +153,61 @@ public class AllAppsStore {
         mIconContainers.remove(container);
     }
 
+    /**
+     * Called by the icon containers when {@param icon} is bound to {@param info}.
+     */
+    public void onIconBound(BubbleTextView icon, ItemInfo info) {
+        ComponentName component = info.getTargetComponent();
+        ComponentKey key = component == null ? null : new ComponentKey(component, info.user);
+        ComponentKey oldKey = mBoundIcons.get(icon);
+        if (key != null && key.equals(oldKey)) {
+            return;
+        }
+        onIconUnbound(icon);
+        if (key == null) {
+            return;
+        }
+        mBoundIcons.put(icon, key);
+        mIconsByComponent.computeIfAbsent(key, k -> new ArraySet<>()).add(icon);
+        mIconsByPackage.computeIfAbsent(
+                new PackageUserKey(component.getPackageName(), info.user),
+                k -> new ArraySet<>()).add(icon);
+    }
+
+    /**
+     * Called by the icon containers when {@param icon} is recycled or removed.
+     */
+    public void onIconUnbound(BubbleTextView icon) {
+        ComponentKey key = mBoundIcons.remove(icon);
+        if (key == null) {
+            return;
+        }
+        removeFromIndex(mIconsByComponent, key, icon);
+        mTempKey.update(key.componentName.getPackageName(), key.user);
+        removeFromIndex(mIconsByPackage, mTempKey, icon);
+    }
+
+    private static <K> void removeFromIndex(
+            Map<K, ArraySet<BubbleTextView>> index, K key, BubbleTextView icon) {
+        ArraySet<BubbleTextView> icons = index.get(key);
+        if (icons != null && icons.remove(icon) && icons.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
     public void updateNotificationDots(Predicate<PackageUserKey> updatedDots) {
-        updateAllIcons((child) -> {
-            if (child.getTag() instanceof ItemInfo) {
+        for (Map.Entry<PackageUserKey, ArraySet<BubbleTextView>> entry
+                : mIconsByPackage.entrySet()) {
+            if (!updatedDots.test(entry.getKey())) {
+                continue;
+            }
+            updateIcons(entry.getValue(), child -> {
                 ItemInfo info = (ItemInfo) child.getTag();
                 if (mTempKey.updateFromItemInfo(info) && updatedDots.test(mTempKey)) {
                     child.applyDotState(info, true /* animate */);
                 }
-            }
-        });
+            });
+        }
     }
 
     /**
@@ -162,7 +220,12 @@ public class AllAppsStore {
      * If this app is fully downloaded, the app icon will be reapplied.
      */
     public void updateProgressBar(AppInfo app) {
-        updateAllIcons((child) -> {
+        ArraySet<BubbleTextView> icons = mIconsByComponent.get(
+                new ComponentKey(app.componentName, app.user));
+        if (icons == null) {
+            return;
+        }
+        updateIcons(icons, (child) -> {
             if (child.getTag() == app) {
                 if ((app.runtimeStatusFlags & FLAG_SHOW_DOWNLOAD_PROGRESS_MASK) == 0) {
                     child.applyFromApplicationInfo(app);
@@ -173,16 +236,19 @@ public class AllAppsStore {
         });
     }
 
-    private void updateAllIcons(Consumer<BubbleTextView> action) {
-        for (int i = mIconContainers.size() - 1; i >= 0; i--) {
-            ViewGroup parent = mIconContainers.get(i);
-            int childCount = parent.getChildCount();
-
-            for (int j = 0; j < childCount; j++) {
-                View child = parent.getChildAt(j);
-                if (child instanceof BubbleTextView) {
-                    action.accept((BubbleTextView) child);
-                }
+    /**
+     * Applies {@param action} to the icons which are currently shown in a registered container.
+     */
+    private void updateIcons(ArraySet<BubbleTextView> icons, Consumer<BubbleTextView> action) {
+        // Iterate backwards as the action may rebind an icon
+        for (int i = icons.size() - 1; i >= 0; i--) {
+            if (i >= icons.size()) {
+                continue;
+            }
+            BubbleTextView icon = icons.valueAt(i);
+            if (icon.getTag() instanceof ItemInfo && icon.getParent() instanceof ViewGroup
+                    && mIconContainers.contains((ViewGroup) icon.getParent())) {
+                action.accept(icon);
             }
         }
     }
@@ -18,20 +18,25 @@ package com.android.launcher3.allapps;
 import static com.android.launcher3.allapps.BaseAllAppsAdapter.VIEW_TYPE_ALL_APPS_DIVIDER;
 import static com.android.launcher3.allapps.BaseAllAppsAdapter.VIEW_TYPE_EMPTY_SEARCH;
 import static com.android.launcher3.allapps.BaseAllAppsAdapter.VIEW_TYPE_SEARCH_MARKET;
+import static com.android.launcher3.config.FeatureFlags.ENABLE_INCREMENTAL_ALL_APPS_UPDATES;
 
 import android.content.Context;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.recyclerview.widget.DiffUtil;
 
 import com.android.launcher3.allapps.BaseAllAppsAdapter.AdapterItem;
 import com.android.launcher3.config.FeatureFlags;
+import com.android.launcher3.icons.BitmapInfo;
 import com.android.launcher3.model.data.AppInfo;
 import com.android.launcher3.model.data.ItemInfo;
 import com.android.launcher3.util.LabelComparator;
+import com.android.launcher3.util.LabelComparator.SortKey;
 import com.android.launcher3.views.ActivityContext;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -50,6 +55,10 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
 
     public static final String TAG = "AlphabeticalAppsList";
 
+    // The maximum number of changed apps which are applied incrementally, larger updates rebuild
+    // the whole list
+    private static final int MAX_INCREMENTAL_CHANGES = 10;
+
     private final WorkAdapterProvider mWorkAdapterProvider;
 
     /**
@@ -88,16 +97,32 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
     private BaseAllAppsAdapter<T> mAdapter;
     private AppInfoComparator mAppNameComparator;
     private final int mNumAppsPerRowAllApps;
+    private final boolean mIncrementalUpdates;
     private int mNumAppRowsInAdapter;
     private Predicate<ItemInfo> mItemFilter;
 
+    // The state each app of mApps was sorted with, or null if the list can not be updated
+    // incrementally
+    @Nullable
+    private IdentityHashMap<AppInfo, AppState> mAppStates;
+    private int mUpdateGeneration;
+    // The adapter position of the first app, or -1 if the adapter items are not the apps
+    private int mAppItemsOffset = -1;
+
     public AlphabeticalAppsList(Context context, @Nullable AllAppsStore appsStore,
             WorkAdapterProvider adapterProvider) {
+        this(context, appsStore, adapterProvider, ENABLE_INCREMENTAL_ALL_APPS_UPDATES.get());
+    }
+
+    @VisibleForTesting
+    AlphabeticalAppsList(Context context, @Nullable AllAppsStore appsStore,
+            WorkAdapterProvider adapterProvider, boolean incrementalUpdates) {
         mAllAppsStore = appsStore;
         mActivityContext = ActivityContext.lookupContext(context);
         mAppNameComparator = new AppInfoComparator(context);
         mWorkAdapterProvider = adapterProvider;
         mNumAppsPerRowAllApps = mActivityContext.getDeviceProfile().inv.numAllAppsColumns;
+        mIncrementalUpdates = incrementalUpdates;
         if (mAllAppsStore != null) {
             mAllAppsStore.addUpdateListener(this);
         }
@@ -105,6 +130,7 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
 
     public void updateItemFilter(Predicate<ItemInfo> itemFilter) {
         this.mItemFilter = itemFilter;
+        mAppStates = null;
         onAppsUpdated();
     }
 
@@ -115,6 +141,14 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
         mAdapter = adapter;
     }
 
+    /**
+     * Returns the store backing this list, if any.
+     */
+    @Nullable
+    public AllAppsStore getAllAppsStore() {
+        return mAllAppsStore;
+    }
+
     /**
      * Returns fast scroller sections of all the current filtered applications.
      */
@@ -202,6 +236,9 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
         if (mAllAppsStore == null) {
             return;
         }
+        if (mIncrementalUpdates && updateAppsIncrementally()) {
+            return;
+        }
         // Sort the list of apps
         mApps.clear();
 
@@ -228,6 +265,18 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
         }
 
         appSteam.forEachOrdered(mApps::add);
+
+        // Apps grouped by section, or listed without the item filter during a search, can not be
+        // updated incrementally
+        mAppStates = null;
+        if (mIncrementalUpdates && !localeRequiresSectionSorting
+                && (mItemFilter == null || !hasSearchResults())) {
+            mAppStates = new IdentityHashMap<>(mApps.size());
+            for (AppInfo info : mApps) {
+                mAppStates.put(info,
+                        new AppState(info, mAppNameComparator.getTitleSortKey(info)));
+            }
+        }
         // Recompose the set of adapter items from the current set of apps
         if (mSearchResults.isEmpty()) {
             updateAdapterItems();
@@ -244,6 +293,7 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
         mFastScrollerSections.clear();
         mAdapterItems.clear();
         mAccessibilityResultsCount = 0;
+        mAppItemsOffset = -1;
 
         // Recreate the filtered and sectioned apps (for convenience for the grid layout) from the
         // ordered set of sections
@@ -266,6 +316,7 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
                     return;
                 }
             }
+            mAppItemsOffset = position;
             String lastSectionName = null;
             for (AppInfo info : mApps) {
                 mAdapterItems.add(AdapterItem.asApp(info));
@@ -282,29 +333,7 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
         mAccessibilityResultsCount = (int) mAdapterItems.stream()
                 .filter(AdapterItem::isCountedForAccessibility).count();
 
-        if (mNumAppsPerRowAllApps != 0) {
-            // Update the number of rows in the adapter after we do all the merging (otherwise, we
-            // would have to shift the values again)
-            int numAppsInSection = 0;
-            int numAppsInRow = 0;
-            int rowIndex = -1;
-            for (AdapterItem item : mAdapterItems) {
-                item.rowIndex = 0;
-                if (BaseAllAppsAdapter.isDividerViewType(item.viewType)) {
-                    numAppsInSection = 0;
-                } else if (BaseAllAppsAdapter.isIconViewType(item.viewType)) {
-                    if (numAppsInSection % mNumAppsPerRowAllApps == 0) {
-                        numAppsInRow = 0;
-                        rowIndex++;
-                    }
-                    item.rowIndex = rowIndex;
-                    item.rowAppIndex = numAppsInRow;
-                    numAppsInSection++;
-                    numAppsInRow++;
-                }
-            }
-            mNumAppRowsInAdapter = rowIndex + 1;
-        }
+        updateRowIndices(0);
 
         if (mAdapter != null) {
             DiffUtil.calculateDiff(new MyDiffCallback(oldItems, mAdapterItems), false)
@@ -312,6 +341,307 @@ public class AlphabeticalAppsList<T extends Context & ActivityContext> implement
         }
     }
 
+    /**
+     * Updates the row of the adapter items at or after {@param fromPosition}, assuming that the
+     * items before it are unchanged.
+     */
+    private void updateRowIndices(int fromPosition) {
+        if (mNumAppsPerRowAllApps == 0) {
+            return;
+        }
+        // Update the number of rows in the adapter after we do all the merging (otherwise, we
+        // would have to shift the values again)
+        int numAppsInSection = 0;
+        int numAppsInRow = 0;
+        int rowIndex = -1;
+        int start = 0;
+        AdapterItem previous = fromPosition > 0 ? mAdapterItems.get(fromPosition - 1) : null;
+        if (previous != null && BaseAllAppsAdapter.isIconViewType(previous.viewType)) {
+            // Resume after the previous icon, only the index in the row of the apps in the
+            // section matters
+            rowIndex = previous.rowIndex;
+            numAppsInRow = previous.rowAppIndex + 1;
+            numAppsInSection = numAppsInRow;
+            start = fromPosition;
+        }
+        for (int i = start; i < mAdapterItems.size(); i++) {
+            AdapterItem item = mAdapterItems.get(i);
+            item.rowIndex = 0;
+            if (BaseAllAppsAdapter.isDividerViewType(item.viewType)) {
+                numAppsInSection = 0;
+            } else if (BaseAllAppsAdapter.isIconViewType(item.viewType)) {
+                if (numAppsInSection % mNumAppsPerRowAllApps == 0) {
+                    numAppsInRow = 0;
+                    rowIndex++;
+                }
+                item.rowIndex = rowIndex;
+                item.rowAppIndex = numAppsInRow;
+                numAppsInSection++;
+                numAppsInRow++;
+            }
+        }
+        mNumAppRowsInAdapter = rowIndex + 1;
+    }
+
+    /**
+     * Applies the changes of the store to the current list by only inserting, removing or moving
+     * the apps which changed, and notifies the adapter of each change. Returns false if the list
+     * needs to be rebuilt instead.
+     */
+    private boolean updateAppsIncrementally() {
+        if (mAppStates == null || mAppItemsOffset < 0 || hasSearchResults()
+                || !hasSameWorkItems()) {
+            return false;
+        }
+
+        // Find the changed apps without sorting, by comparing the apps with the state they were
+        // sorted with
+        int generation = ++mUpdateGeneration;
+        ArrayList<AppState> removedApps = new ArrayList<>();
+        ArrayList<AppInfo> addedApps = new ArrayList<>();
+        ArrayList<AppState> changedApps = new ArrayList<>();
+        for (AppInfo info : mAllAppsStore.getApps()) {
+            AppState state = mAppStates.get(info);
+            boolean included = mItemFilter == null || mItemFilter.test(info);
+            if (state == null) {
+                if (included) {
+                    addedApps.add(info);
+                }
+                continue;
+            }
+            state.generation = generation;
+            if (!included || !state.hasSameOrder()) {
+                removedApps.add(state);
+                if (included) {
+                    addedApps.add(info);
+                }
+            } else if (!state.hasSameContent()) {
+                changedApps.add(state);
+            }
+            if (removedApps.size() + addedApps.size() + changedApps.size()
+                    > MAX_INCREMENTAL_CHANGES) {
+                return false;
+            }
+        }
+        for (AppState state : mAppStates.values()) {
+            if (state.generation != generation) {
+                removedApps.add(state);
+            }
+        }
+        if (removedApps.size() + addedApps.size() + changedApps.size()
+                > MAX_INCREMENTAL_CHANGES) {
+            return false;
+        }
+
+        int firstMovedPosition = mAdapterItems.size();
+        for (AppState state : removedApps) {
+            int index = indexOf(state);
+            if (index < 0) {
+                return false;
+            }
+            int position = mAppItemsOffset + index;
+            mApps.remove(index);
+            mAppStates.remove(state.app);
+            mAdapterItems.remove(position);
+            mAccessibilityResultsCount--;
+            onAppItemRemoved(position);
+            firstMovedPosition = Math.min(firstMovedPosition, position);
+            if (mAdapter != null) {
+                mAdapter.notifyItemRemoved(position);
+            }
+        }
+        for (AppInfo info : addedApps) {
+            AppState state = new AppState(info, mAppNameComparator.getTitleSortKey(info));
+            int index = binarySearch(state);
+            if (index >= 0) {
+                return false;
+            }
+            index = -(index + 1);
+            int position = mAppItemsOffset + index;
+            mApps.add(index, info);
+            mAppStates.put(info, state);
+            mAdapterItems.add(position, AdapterItem.asApp(info));
+            mAccessibilityResultsCount++;
+            onAppItemInserted(position);
+            firstMovedPosition = Math.min(firstMovedPosition, position);
+            if (mAdapter != null) {
+                mAdapter.notifyItemInserted(position);
+            }
+        }
+        for (AppState state : changedApps) {
+            int index = indexOf(state);
+            if (index < 0) {
+                return false;
+            }
+            state.updateContent();
+            if (mAdapter != null) {
+                mAdapter.notifyItemChanged(mAppItemsOffset + index);
+            }
+        }
+        updateRowIndices(firstMovedPosition);
+        return true;
+    }
+
+    private boolean hasSameWorkItems() {
+        if (mWorkAdapterProvider == null) {
+            return mAppItemsOffset == 0;
+        }
+        if (!mWorkAdapterProvider.shouldShowWorkApps()) {
+            return false;
+        }
+        ArrayList<AdapterItem> workItems = new ArrayList<>();
+        if (mWorkAdapterProvider.addWorkItems(workItems) != mAppItemsOffset) {
+            return false;
+        }
+        for (int i = 0; i < mAppItemsOffset; i++) {
+            if (!workItems.get(i).isSameAs(mAdapterItems.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the app in {@link #mApps}, or -1 if it was not found at the position
+     * matching the state it was sorted with.
+     */
+    private int indexOf(AppState state) {
+        int index = binarySearch(state);
+        return index >= 0 && mApps.get(index) == state.app ? index : -1;
+    }
+
+    /**
+     * Searches {@link #mApps} for an app sorted with the provided state, comparing each app by
+     * the state it was sorted with, as the titles of apps may have changed since.
+     */
+    private int binarySearch(AppState key) {
+        int low = 0;
+        int high = mApps.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            AppState state = mAppStates.get(mApps.get(mid));
+            int result = mAppNameComparator.compare(
+                    state.titleKey, state.app, key.titleKey, key.app);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void onAppItemInserted(int position) {
+        shiftFastScrollerSections(position, 1);
+        updateFastScrollerSectionAt(position);
+        updateFastScrollerSectionAt(position + 1);
+    }
+
+    private void onAppItemRemoved(int position) {
+        int index = getFastScrollerSectionIndex(position);
+        if (index < mFastScrollerSections.size()
+                && mFastScrollerSections.get(index).position == position) {
+            mFastScrollerSections.remove(index);
+        }
+        shiftFastScrollerSections(position, -1);
+        updateFastScrollerSectionAt(position);
+    }
+
+    /**
+     * Returns the index of the first fast scroller section at or after {@param position}.
+     */
+    private int getFastScrollerSectionIndex(int position) {
+        int low = 0;
+        int high = mFastScrollerSections.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mFastScrollerSections.get(mid).position < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void shiftFastScrollerSections(int fromPosition, int delta) {
+        for (int i = getFastScrollerSectionIndex(fromPosition);
+                i < mFastScrollerSections.size(); i++) {
+            FastScrollSectionInfo info = mFastScrollerSections.get(i);
+            mFastScrollerSections.set(i,
+                    new FastScrollSectionInfo(info.sectionName, info.position + delta));
+        }
+    }
+
+    /**
+     * Adds, replaces or removes the fast scroller section at {@param position}, so that a section
+     * starts at each app whose section name differs from the previous app.
+     */
+    private void updateFastScrollerSectionAt(int position) {
+        int index = getFastScrollerSectionIndex(position);
+        boolean hasSection = index < mFastScrollerSections.size()
+                && mFastScrollerSections.get(index).position == position;
+        int appIndex = position - mAppItemsOffset;
+        if (appIndex >= mApps.size()) {
+            if (hasSection) {
+                mFastScrollerSections.remove(index);
+            }
+            return;
+        }
+        String sectionName = mAppStates.get(mApps.get(appIndex)).sectionName;
+        boolean needsSection = appIndex == 0
+                || !sectionName.equals(mAppStates.get(mApps.get(appIndex - 1)).sectionName);
+        if (!needsSection) {
+            if (hasSection) {
+                mFastScrollerSections.remove(index);
+            }
+        } else if (!hasSection) {
+            mFastScrollerSections.add(index, new FastScrollSectionInfo(sectionName, position));
+        } else if (!mFastScrollerSections.get(index).sectionName.equals(sectionName)) {
+            mFastScrollerSections.set(index, new FastScrollSectionInfo(sectionName, position));
+        }
+    }
+
+    /**
+     * The state of an app when it was last sorted or bound, used to find which apps have changed
+     * as the model updates apps in place.
+     */
+    private static class AppState {
+
+        final AppInfo app;
+        final SortKey titleKey;
+        final String sectionName;
+        BitmapInfo bitmap;
+        int runtimeStatusFlags;
+        int progressLevel;
+        int generation;
+
+        AppState(AppInfo app, SortKey titleKey) {
+            this.app = app;
+            this.titleKey = titleKey;
+            sectionName = app.sectionName;
+            updateContent();
+        }
+
+        void updateContent() {
+            bitmap = app.bitmap;
+            runtimeStatusFlags = app.runtimeStatusFlags;
+            progressLevel = app.getProgressLevel();
+        }
+
+        boolean hasSameOrder() {
+            return titleKey.getLabel().equals(app.title == null ? "" : app.title.toString())
+                    && sectionName.equals(app.sectionName);
+        }
+
+        boolean hasSameContent() {
+            return bitmap == app.bitmap && runtimeStatusFlags == app.runtimeStatusFlags
+                    && progressLevel == app.getProgressLevel();
+        }
+    }
+
     private static class MyDiffCallback extends DiffUtil.Callback {
 
         private final List<AdapterItem> mOldList;
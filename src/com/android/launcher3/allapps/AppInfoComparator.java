@@ -22,6 +22,7 @@ import android.os.UserHandle;
 import com.android.launcher3.model.data.AppInfo;
 import com.android.launcher3.pm.UserCache;
 import com.android.launcher3.util.LabelComparator;
+import com.android.launcher3.util.LabelComparator.SortKey;
 
 import java.util.Comparator;
 
@@ -42,10 +43,23 @@ public class AppInfoComparator implements Comparator<AppInfo> {
 
     @Override
     public int compare(AppInfo a, AppInfo b) {
+        return compare(getTitleSortKey(a), a, getTitleSortKey(b), b);
+    }
+
+    /**
+     * Returns the sort key of the current title of {@param info}.
+     */
+    public SortKey getTitleSortKey(AppInfo info) {
+        return mLabelComparator.getTitleSortKey(info);
+    }
+
+    /**
+     * Compares two apps as if they had the titles of the provided sort keys, which allows looking
+     * up an app by the title it was sorted with after its title has changed.
+     */
+    public int compare(SortKey titleA, AppInfo a, SortKey titleB, AppInfo b) {
         // Order by the title in the current locale
-        int result = mLabelComparator.compare(
-                a.title == null ? "" : a.title.toString(),
-                b.title == null ? "" : b.title.toString());
+        int result = mLabelComparator.compare(titleA, titleB);
         if (result != 0) {
             return result;
         }
@@ -56,8 +70,12 @@ public class AppInfoComparator implements Comparator<AppInfo> {
             return result;
         }
 
-        if (mMyUser.equals(a.user)) {
+        if (a.user.equals(b.user)) {
+            return 0;
+        } else if (mMyUser.equals(a.user)) {
             return -1;
+        } else if (mMyUser.equals(b.user)) {
+            return 1;
         } else {
             Long aUserSerial = mUserManager.getSerialNumberForUser(a.user);
             Long bUserSerial = mUserManager.getSerialNumberForUser(b.user);
@@ -242,6 +242,9 @@ public abstract class BaseAllAppsAdapter<T extends Context & ActivityContext> ex
                 BubbleTextView icon = (BubbleTextView) holder.itemView;
                 icon.reset();
                 icon.applyFromApplicationInfo(adapterItem.itemInfo);
+                if (mApps.getAllAppsStore() != null) {
+                    mApps.getAllAppsStore().onIconBound(icon, adapterItem.itemInfo);
+                }
                 break;
             case VIEW_TYPE_EMPTY_SEARCH:
                 TextView emptyViewText = (TextView) holder.itemView;
@@ -271,6 +274,9 @@ public abstract class BaseAllAppsAdapter<T extends Context & ActivityContext> ex
     @Override
     public void onViewRecycled(@NonNull ViewHolder holder) {
         super.onViewRecycled(holder);
+        if (holder.itemView instanceof BubbleTextView && mApps.getAllAppsStore() != null) {
+            mApps.getAllAppsStore().onIconUnbound((BubbleTextView) holder.itemView);
+        }
     }
 
     @Override
@@ -233,6 +233,17 @@ public abstract class BaseAllAppsContainerView<T extends Context & ActivityConte
         updateBackground(dp);
     }
 
+    /**
+     * Creates the icon views of the first screen of the personal apps list in idle time, so that
+     * they do not need to be inflated when all apps is first opened.
+     */
+    public void prewarmIconViews() {
+        AllAppsRecyclerView rv = mAH.get(AdapterHolder.MAIN).mRecyclerView;
+        if (rv != null) {
+            rv.prewarmIconViews();
+        }
+    }
+
     protected void updateBackground(DeviceProfile deviceProfile) {
         mBottomSheetBackground.setVisibility(deviceProfile.isTablet ? View.VISIBLE : View.GONE);
     }
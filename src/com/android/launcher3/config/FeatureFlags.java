@@ -277,6 +277,49 @@ public final class FeatureFlags {
             "ENABLE_DISMISS_PREDICTION_UNDO", false,
             "Show an 'Undo' snackbar when users dismiss a predicted hotseat item");
 
+    public static final BooleanFlag ENABLE_HARDWARE_THUMBNAIL_PATH = getDebugFlag(
+            "ENABLE_HARDWARE_THUMBNAIL_PATH", true,
+            "Keep task snapshots hardware backed when drawing, cropping and sharing them");
+
+    public static final BooleanFlag OVERVIEW_SHARE_WEBP_LOSSLESS = getDebugFlag(
+            "OVERVIEW_SHARE_WEBP_LOSSLESS", false,
+            "Export images shared from overview as lossless WEBP instead of PNG");
+
+    public static final BooleanFlag ENABLE_BATCHED_GESTURE_INPUT = getDebugFlag(
+            "ENABLE_BATCHED_GESTURE_INPUT", false,
+            "Keep gesture input batched per vsync from touch down instead of per event");
+
+    public static final BooleanFlag ENABLE_PRIORITIZED_WIDGET_INFLATION = getDebugFlag(
+            "ENABLE_PRIORITIZED_WIDGET_INFLATION", false,
+            "Inflate widgets in the background with bounded concurrency, visible pages first");
+
+    public static final BooleanFlag ENABLE_CACHED_LABEL_LAYOUTS = getDebugFlag(
+            "ENABLE_CACHED_LABEL_LAYOUTS", false,
+            "Measure icon labels in the background and share the results between icons");
+
+    public static final BooleanFlag ENABLE_INCREMENTAL_ALL_APPS_UPDATES = getDebugFlag(
+            "ENABLE_INCREMENTAL_ALL_APPS_UPDATES", false,
+            "Insert, remove or move only the changed apps when the all apps list is updated");
+
+    public static final BooleanFlag ENABLE_LAZY_WORKSPACE_PAGE_BINDING = getDebugFlag(
+            "ENABLE_LAZY_WORKSPACE_PAGE_BINDING", false,
+            "Bind the items of workspace pages only when they are scrolled close to the viewport");
+
+    public static final BooleanFlag ENABLE_SCROLL_LAYER_CACHING = getDebugFlag(
+            "ENABLE_SCROLL_LAYER_CACHING", false,
+            "Keep the pages adjacent to the visible workspace pages in hardware layers while "
+                    + "scrolling");
+
+    public static final BooleanFlag ENABLE_WALLPAPER_OFFSET_CACHING = getDebugFlag(
+            "ENABLE_WALLPAPER_OFFSET_CACHING", false,
+            "Cache the workspace page counts used for the wallpaper offset, and only dispatch the "
+                    + "offset when it changes, at most once per frame");
+
+    public static final BooleanFlag ENABLE_WIDGET_VIEW_RECYCLING = getDebugFlag(
+            "ENABLE_WIDGET_VIEW_RECYCLING", false,
+            "Reuse the widget views of the previous workspace bind when the widget size and the "
+                    + "configuration are unchanged");
+
     public static void initialize(Context context) {
         synchronized (sDebugFlags) {
             for (DebugFlag flag : sDebugFlags) {
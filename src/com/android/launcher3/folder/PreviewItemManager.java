@@ -27,12 +27,15 @@ import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Path;
 import android.graphics.PointF;
 import android.graphics.Rect;
+import android.graphics.RenderNode;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.util.FloatProperty;
 import android.view.View;
 
@@ -93,6 +96,13 @@ public class PreviewItemManager {
     private float mCurrentPageItemsTransX = 0;
     private boolean mShouldSlideInFirstPage;
 
+    // Display list of the static first page preview, reused across frames until the preview
+    // changes. Null on platforms which do not support recording render nodes.
+    private final RenderNode mPreviewNode;
+    private boolean mPreviewNodeDirty = true;
+    private final PointF mTempOffset = new PointF();
+    private final PointF mZeroOffset = new PointF();
+
     static final int INITIAL_ITEM_ANIMATION_DURATION = 350;
     private static final int FINAL_ITEM_ANIMATION_DURATION = 200;
 
@@ -107,6 +117,15 @@ public class PreviewItemManager {
         mIconSize = ActivityContext.lookupContext(
                 mContext).getDeviceProfile().folderChildIconSizePx;
         mClipThreshold = Utilities.dpToPx(1f);
+        mPreviewNode = Utilities.ATLEAST_Q ? createPreviewNode() : null;
+    }
+
+    @TargetApi(Build.VERSION_CODES.Q)
+    private static RenderNode createPreviewNode() {
+        RenderNode node = new RenderNode("FolderPreview");
+        // Preview items are positioned and clipped by the caller
+        node.setClipToBounds(false);
+        return node;
     }
 
     /**
@@ -149,6 +168,7 @@ public class PreviewItemManager {
             mIcon.mPreviewLayoutRule.init(mIcon.mBackground.previewSize, mIntrinsicIconSize,
                     Utilities.isRtl(mIcon.getResources()));
 
+            invalidatePreviewCache();
             updatePreviewItems(false);
         }
     }
@@ -196,21 +216,66 @@ public class PreviewItemManager {
         Path clipPath = bg.getClipPath();
         float firstPageItemsTransX = 0;
         if (mShouldSlideInFirstPage) {
-            PointF firstPageOffset = new PointF(bg.basePreviewOffsetX + mCurrentPageItemsTransX,
+            mTempOffset.set(bg.basePreviewOffsetX + mCurrentPageItemsTransX,
                     bg.basePreviewOffsetY);
             boolean shouldClip = mCurrentPageItemsTransX > mClipThreshold;
-            drawParams(canvas, mCurrentPageParams, firstPageOffset, shouldClip, clipPath);
+            drawParams(canvas, mCurrentPageParams, mTempOffset, shouldClip, clipPath);
             firstPageItemsTransX = -ITEM_SLIDE_IN_OUT_DISTANCE_PX + mCurrentPageItemsTransX;
         }
 
-        PointF firstPageOffset = new PointF(bg.basePreviewOffsetX + firstPageItemsTransX,
-                bg.basePreviewOffsetY);
+        mTempOffset.set(bg.basePreviewOffsetX + firstPageItemsTransX, bg.basePreviewOffsetY);
         boolean shouldClipFirstPage = firstPageItemsTransX < -mClipThreshold;
-        drawParams(canvas, mFirstPageParams, firstPageOffset, shouldClipFirstPage, clipPath);
+        if (canUsePreviewCache(canvas, shouldClipFirstPage)) {
+            drawCachedPreview(canvas, mTempOffset, clipPath);
+        } else {
+            drawParams(canvas, mFirstPageParams, mTempOffset, shouldClipFirstPage, clipPath);
+        }
         canvas.restoreToCount(saveCount);
     }
 
+    /**
+     * Returns true if the first page preview is static and can be drawn from the cached display
+     * list. Items are drawn live while any of them is animating.
+     */
+    private boolean canUsePreviewCache(Canvas canvas, boolean shouldClip) {
+        if (mPreviewNode == null || !canvas.isHardwareAccelerated() || shouldClip
+                || mShouldSlideInFirstPage) {
+            return false;
+        }
+        for (int i = mFirstPageParams.size() - 1; i >= 0; i--) {
+            PreviewItemDrawingParams p = mFirstPageParams.get(i);
+            if (p.anim != null || p.index == EXIT_INDEX) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @TargetApi(Build.VERSION_CODES.Q)
+    private void drawCachedPreview(Canvas canvas, PointF offset, Path clipPath) {
+        if (mPreviewNodeDirty) {
+            int size = mIcon.mBackground.previewSize;
+            mPreviewNode.setPosition(0, 0, size, size);
+            Canvas recordingCanvas = mPreviewNode.beginRecording(size, size);
+            drawParams(recordingCanvas, mFirstPageParams, mZeroOffset, false, clipPath);
+            mPreviewNode.endRecording();
+            mPreviewNodeDirty = false;
+        }
+        canvas.save();
+        canvas.translate(offset.x, offset.y);
+        canvas.drawRenderNode(mPreviewNode);
+        canvas.restore();
+    }
+
+    /**
+     * Discards the cached preview so that it is recorded again on the next draw.
+     */
+    void invalidatePreviewCache() {
+        mPreviewNodeDirty = true;
+    }
+
     public void onParamsChanged() {
+        invalidatePreviewCache();
         mIcon.invalidate();
     }
 
@@ -250,14 +315,16 @@ public class PreviewItemManager {
 
         PreviewItemDrawingParams params = index < mFirstPageParams.size() ?
                 mFirstPageParams.get(index) : null;
-        if (params != null) {
+        if (params != null && params.hidden != hidden) {
             params.hidden = hidden;
+            invalidatePreviewCache();
         }
     }
 
     void buildParamsForPage(int page, ArrayList<PreviewItemDrawingParams> params, boolean animate) {
         List<WorkspaceItemInfo> items = mIcon.getPreviewItemsOnPage(page);
         int prevNumItems = params.size();
+        invalidatePreviewCache();
 
         // We adjust the size of the list to match the number of items in the preview.
         while (items.size() < params.size()) {
@@ -343,6 +410,16 @@ public class PreviewItemManager {
         }
     }
 
+    /**
+     * Called when one of the preview drawables requests to be redrawn, for example when the
+     * download progress of a pending icon changes.
+     */
+    void onDrawableInvalidated(@NonNull Drawable who) {
+        if (verifyDrawable(who)) {
+            invalidatePreviewCache();
+        }
+    }
+
     boolean verifyDrawable(@NonNull Drawable who) {
         for (int i = 0; i < mFirstPageParams.size(); i++) {
             if (mFirstPageParams.get(i).drawable == who) {
@@ -437,6 +514,7 @@ public class PreviewItemManager {
         }
         p.drawable.setBounds(0, 0, mIconSize, mIconSize);
         p.item = item;
+        invalidatePreviewCache();
 
         // Set the callback to FolderIcon as it is responsible to drawing the icon. The
         // callback will be released when the folder is opened.
@@ -16,68 +16,155 @@
 package com.android.launcher3.logging;
 
 
-import android.util.Log;
 import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Random;
+import java.util.function.IntFunction;
 
 /**
  * A utility class to record and log events. Events are stored in a fixed size array and old logs
  * are purged as new events come.
+ *
+ * Events registered through {@link #registerEvent(String)} are recorded by id along with
+ * primitive payloads into parallel arrays, and are only formatted when the log is dumped, so
+ * recording them does not allocate.
  */
 public class EventLogArray {
 
+    private static final int TYPE_NONE = -1;
     private static final int TYPE_ONE_OFF = 0;
     private static final int TYPE_FLOAT = 1;
     private static final int TYPE_INTEGER = 2;
     private static final int TYPE_BOOL_TRUE = 3;
     private static final int TYPE_BOOL_FALSE = 4;
+    private static final int TYPE_POINT_INTEGER = 5;
+
+    // Event id used for events logged by name rather than registered id
+    private static final int UNREGISTERED_EVENT = -1;
 
     private final String name;
-    private final EventEntry[] logs;
+    private final ArrayList<String> mEventNames = new ArrayList<>();
+    private final ArrayList<IntFunction<String>> mEventFormatters = new ArrayList<>();
+
+    private final int mSize;
+    private final int[] mTypes;
+    private final int[] mEventIds;
+    private final String[] mEvents;
+    private final float[] mExtras;
+    private final float[] mPointsX;
+    private final float[] mPointsY;
+    private final long[] mTimes;
+    private final int[] mDuplicateCounts;
+    private final int[] mTraceIds;
+
     private int nextIndex;
     private int mLogId;
 
     public EventLogArray(String name, int size) {
         this.name = name;
-        logs = new EventEntry[size];
+        mSize = size;
+        mTypes = new int[size];
+        mEventIds = new int[size];
+        mEvents = new String[size];
+        mExtras = new float[size];
+        mPointsX = new float[size];
+        mPointsY = new float[size];
+        mTimes = new long[size];
+        mDuplicateCounts = new int[size];
+        mTraceIds = new int[size];
         nextIndex = 0;
+        clear();
+    }
+
+    /**
+     * Registers an event name and returns the id to use with the id based {@code addLog} methods.
+     */
+    public int registerEvent(String event) {
+        return registerEvent(event, null);
+    }
+
+    /**
+     * Registers an event name whose integer payload is formatted by {@param formatter} when the
+     * log is dumped, and returns the id to use with the id based {@code addLog} methods. Events
+     * with different payloads are not merged as duplicates.
+     */
+    public synchronized int registerEvent(String event, IntFunction<String> formatter) {
+        int id = mEventNames.indexOf(event);
+        if (id < 0) {
+            id = mEventNames.size();
+            mEventNames.add(event);
+            mEventFormatters.add(formatter);
+        }
+        return id;
     }
 
     public void addLog(String event) {
-        addLog(TYPE_ONE_OFF, event, 0);
+        addLog(TYPE_ONE_OFF, UNREGISTERED_EVENT, event, 0, 0, 0);
     }
 
     public void addLog(String event, int extras) {
-        addLog(TYPE_INTEGER, event, extras);
+        addLog(TYPE_INTEGER, UNREGISTERED_EVENT, event, extras, 0, 0);
     }
 
     public void addLog(String event, boolean extras) {
-        addLog(extras ? TYPE_BOOL_TRUE : TYPE_BOOL_FALSE, event, 0);
+        addLog(extras ? TYPE_BOOL_TRUE : TYPE_BOOL_FALSE, UNREGISTERED_EVENT, event, 0, 0, 0);
+    }
+
+    /** Adds a log for an event registered through {@link #registerEvent(String)}. */
+    public void addLog(int eventId) {
+        addLog(TYPE_ONE_OFF, eventId, null, 0, 0, 0);
+    }
+
+    /** Adds a log for an event registered through {@link #registerEvent(String)}. */
+    public void addLog(int eventId, int extras) {
+        addLog(TYPE_INTEGER, eventId, null, extras, 0, 0);
+    }
+
+    /** Adds a log for an event registered through {@link #registerEvent(String)}. */
+    public void addLog(int eventId, boolean extras) {
+        addLog(extras ? TYPE_BOOL_TRUE : TYPE_BOOL_FALSE, eventId, null, 0, 0, 0);
     }
 
-    private void addLog(int type, String event, float extras) {
+    /** Adds a log for an event registered through {@link #registerEvent(String)}. */
+    public void addLog(int eventId, float x, float y, int extras) {
+        addLog(TYPE_POINT_INTEGER, eventId, null, extras, x, y);
+    }
+
+    private void addLog(int type, int eventId, String event, float extras, float x, float y) {
         // Merge the logs if its a duplicate
-        int last = (nextIndex + logs.length - 1) % logs.length;
-        int secondLast = (nextIndex + logs.length - 2) % logs.length;
-        if (isEntrySame(logs[last], type, event) && isEntrySame(logs[secondLast], type, event)) {
-            logs[last].update(type, event, extras, mLogId);
-            logs[secondLast].duplicateCount++;
+        int last = (nextIndex + mSize - 1) % mSize;
+        int secondLast = (nextIndex + mSize - 2) % mSize;
+        if (isEntrySame(last, type, eventId, event, extras)
+                && isEntrySame(secondLast, type, eventId, event, extras)) {
+            update(last, type, eventId, event, extras, x, y);
+            mDuplicateCounts[secondLast]++;
             return;
         }
 
-        if (logs[nextIndex] == null) {
-            logs[nextIndex] = new EventEntry();
-        }
-        logs[nextIndex].update(type, event, extras, mLogId);
-        nextIndex = (nextIndex + 1) % logs.length;
+        update(nextIndex, type, eventId, event, extras, x, y);
+        nextIndex = (nextIndex + 1) % mSize;
+    }
+
+    private void update(int index, int type, int eventId, String event, float extras,
+            float x, float y) {
+        mTypes[index] = type;
+        mEventIds[index] = eventId;
+        mEvents[index] = event;
+        mExtras[index] = extras;
+        mPointsX[index] = x;
+        mPointsY[index] = y;
+        mTraceIds[index] = mLogId;
+        mTimes[index] = System.currentTimeMillis();
+        mDuplicateCounts[index] = 0;
     }
 
     public void clear() {
-        Arrays.setAll(logs, (i) -> null);
+        Arrays.fill(mTypes, TYPE_NONE);
+        Arrays.fill(mEvents, null);
     }
 
     public void dump(String prefix, PrintWriter writer) {
@@ -85,16 +172,16 @@ public class EventLogArray {
         SimpleDateFormat sdf = new SimpleDateFormat("  HH:mm:ss.SSSZ  ", Locale.US);
         Date date = new Date();
 
-        for (int i = 0; i < logs.length; i++) {
-            EventEntry log = logs[(nextIndex + logs.length - i - 1) % logs.length];
-            if (log == null) {
+        for (int i = 0; i < mSize; i++) {
+            int index = (nextIndex + mSize - i - 1) % mSize;
+            if (mTypes[index] == TYPE_NONE) {
                 continue;
             }
-            date.setTime(log.time);
+            date.setTime(mTimes[index]);
 
             StringBuilder msg = new StringBuilder(prefix).append(sdf.format(date))
-                    .append(log.event);
-            switch (log.type) {
+                    .append(getEventName(index));
+            switch (mTypes[index]) {
                 case TYPE_BOOL_FALSE:
                     msg.append(": false");
                     break;
@@ -102,17 +189,22 @@ public class EventLogArray {
                     msg.append(": true");
                     break;
                 case TYPE_FLOAT:
-                    msg.append(": ").append(log.extras);
+                    msg.append(": ").append(mExtras[index]);
                     break;
                 case TYPE_INTEGER:
-                    msg.append(": ").append((int) log.extras);
+                    msg.append(": ").append(formatInteger(index));
+                    break;
+                case TYPE_POINT_INTEGER:
+                    msg.append("(").append((int) mPointsX[index])
+                            .append(", ").append((int) mPointsY[index])
+                            .append("): ").append((int) mExtras[index]);
                     break;
                 default: // fall out
             }
-            if (log.duplicateCount > 0) {
-                msg.append(" & ").append(log.duplicateCount).append(" similar events");
+            if (mDuplicateCounts[index] > 0) {
+                msg.append(" & ").append(mDuplicateCounts[index]).append(" similar events");
             }
-            msg.append(" traceId: ").append(log.traceId);
+            msg.append(" traceId: ").append(mTraceIds[index]);
             writer.println(msg);
         }
     }
@@ -124,27 +216,45 @@ public class EventLogArray {
         return mLogId;
     }
 
-    private boolean isEntrySame(EventEntry entry, int type, String event) {
-        return entry != null && entry.type == type && entry.event.equals(event);
+    private String getEventName(int index) {
+        int eventId = mEventIds[index];
+        if (eventId == UNREGISTERED_EVENT) {
+            return mEvents[index];
+        }
+        synchronized (this) {
+            return eventId < mEventNames.size() ? mEventNames.get(eventId) : "event#" + eventId;
+        }
     }
 
-    /** A single event entry. */
-    private static class EventEntry {
-
-        private int type;
-        private String event;
-        private float extras;
-        private long time;
-        private int duplicateCount;
-        private int traceId;
+    private String formatInteger(int index) {
+        int eventId = mEventIds[index];
+        int extras = (int) mExtras[index];
+        IntFunction<String> formatter = null;
+        if (eventId != UNREGISTERED_EVENT) {
+            synchronized (this) {
+                formatter = eventId < mEventFormatters.size()
+                        ? mEventFormatters.get(eventId) : null;
+            }
+        }
+        return formatter == null ? String.valueOf(extras) : formatter.apply(extras);
+    }
 
-        public void update(int type, String event, float extras, int traceId) {
-            this.type = type;
-            this.event = event;
-            this.extras = extras;
-            this.traceId = traceId;
-            time = System.currentTimeMillis();
-            duplicateCount = 0;
+    private boolean isEntrySame(int index, int type, int eventId, String event, float extras) {
+        if (mTypes[index] != type || mEventIds[index] != eventId) {
+            return false;
+        }
+        // Point events carry their coordinates as part of the event itself
+        if (type == TYPE_POINT_INTEGER) {
+            return false;
         }
+        if (eventId == UNREGISTERED_EVENT) {
+            return mEvents[index].equals(event);
+        }
+        // The payload of formatted events identifies the event, like the variable part of a name
+        return !hasFormatter(eventId) || Float.compare(mExtras[index], extras) == 0;
+    }
+
+    private synchronized boolean hasFormatter(int eventId) {
+        return eventId < mEventFormatters.size() && mEventFormatters.get(eventId) != null;
     }
 }
@@ -117,96 +117,23 @@ public class AddWorkspaceItemsTask extends BaseModelUpdateTask {
                 }
             }
 
-            InstallSessionHelper packageInstaller =
-                    InstallSessionHelper.INSTANCE.get(app.getContext());
-            LauncherApps launcherApps = app.getContext().getSystemService(LauncherApps.class);
-
-            for (ItemInfo item : filteredItems) {
-                // Find appropriate space for the item.
-                int[] coords = mItemSpaceFinder.findSpaceForItem(app, dataModel, workspaceScreens,
-                        addedWorkspaceScreensFinal, item.spanX, item.spanY);
-                int screenId = coords[0];
-
-                ItemInfo itemInfo;
-                if (item instanceof WorkspaceItemInfo || item instanceof FolderInfo ||
-                        item instanceof LauncherAppWidgetInfo) {
-                    itemInfo = item;
-                } else if (item instanceof WorkspaceItemFactory) {
-                    itemInfo = ((WorkspaceItemFactory) item).makeWorkspaceItem(app.getContext());
-                } else {
-                    throw new RuntimeException("Unexpected info type");
-                }
-
-                if (item instanceof WorkspaceItemInfo && ((WorkspaceItemInfo) item).isPromise()) {
-                    WorkspaceItemInfo workspaceInfo = (WorkspaceItemInfo) item;
-                    String packageName = item.getTargetComponent() != null
-                            ? item.getTargetComponent().getPackageName() : null;
-                    if (packageName == null) {
-                        if (TestProtocol.sDebugTracing) {
-                            Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + " Null packageName.");
-                        }
-                        continue;
-                    }
-                    SessionInfo sessionInfo = packageInstaller.getActiveSessionInfo(item.user,
-                            packageName);
-
-                    if (!packageInstaller.verifySessionInfo(sessionInfo)) {
-                        FileLog.d(LOG, "Item info failed session info verification. "
-                                + "Skipping : " + workspaceInfo);
-                        if (TestProtocol.sDebugTracing) {
-                            Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + "Failed verification.");
-                        }
-                        continue;
-                    }
-
-                    List<LauncherActivityInfo> activities = launcherApps
-                            .getActivityList(packageName, item.user);
-                    boolean hasActivity = activities != null && !activities.isEmpty();
-
-                    if (sessionInfo == null) {
-                        if (!hasActivity) {
-                            // Session was cancelled, do not add.
-                            if (TestProtocol.sDebugTracing) {
-                                Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + "Session cancelled");
-                            }
-                            continue;
-                        }
-                    } else {
-                        workspaceInfo.setProgressLevel(
-                                (int) (sessionInfo.getProgress() * 100),
-                                PackageInstallInfo.STATUS_INSTALLING);
-                    }
-
-                    if (hasActivity) {
-                        // App was installed while launcher was in the background,
-                        // or app was already installed for another user.
-                        itemInfo = new AppInfo(app.getContext(), activities.get(0), item.user)
-                                .makeWorkspaceItem(app.getContext());
-
-                        if (shortcutExists(dataModel, itemInfo.getIntent(), itemInfo.user)) {
-                            // We need this additional check here since we treat all auto added
-                            // workspace items as promise icons. At this point we now have the
-                            // correct intent to compare against existing workspace icons.
-                            // Icon already exists on the workspace and should not be auto-added.
-                            if (TestProtocol.sDebugTracing) {
-                                Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + "shortcutExists");
-                            }
-                            continue;
-                        }
-
-                        WorkspaceItemInfo wii = (WorkspaceItemInfo) itemInfo;
-                        wii.title = "";
-                        wii.bitmap = app.getIconCache().getDefaultIcon(item.user);
-                        app.getIconCache().getTitleAndIcon(wii,
-                                ((WorkspaceItemInfo) itemInfo).usingLowResIcon());
-                    }
+            // Place all the items against the same occupancy, and write them together
+            final List<ItemInfo> itemsToAdd = new ArrayList<>();
+            final List<int[]> positions = new ArrayList<>();
+            if (!filteredItems.isEmpty()) {
+                mItemSpaceFinder.startBulkPlacement();
+                try {
+                    placeItems(app, dataModel, filteredItems, workspaceScreens,
+                            addedWorkspaceScreensFinal, itemsToAdd, positions);
+                } finally {
+                    mItemSpaceFinder.endBulkPlacement();
                 }
 
-                // Add the shortcut to the db
-                getModelWriter().addItemToDatabase(itemInfo,
-                        LauncherSettings.Favorites.CONTAINER_DESKTOP, screenId,
-                        coords[1], coords[2]);
-
+                // Add the items to the db in a single transaction
+                getModelWriter().addItemsToDatabase(itemsToAdd,
+                        LauncherSettings.Favorites.CONTAINER_DESKTOP, positions);
+            }
+            for (ItemInfo itemInfo : itemsToAdd) {
                 // Save the WorkspaceItemInfo for binding in the workspace
                 addedItemsFinal.add(itemInfo);
 
@@ -239,6 +166,97 @@ public class AddWorkspaceItemsTask extends BaseModelUpdateTask {
         }
     }
 
+    private void placeItems(LauncherAppState app, BgDataModel dataModel,
+            List<ItemInfo> filteredItems, IntArray workspaceScreens,
+            IntArray addedWorkspaceScreensFinal, List<ItemInfo> itemsToAdd,
+            List<int[]> positions) {
+        InstallSessionHelper packageInstaller =
+                InstallSessionHelper.INSTANCE.get(app.getContext());
+        LauncherApps launcherApps = app.getContext().getSystemService(LauncherApps.class);
+
+        for (ItemInfo item : filteredItems) {
+            ItemInfo itemInfo;
+            if (item instanceof WorkspaceItemInfo || item instanceof FolderInfo ||
+                    item instanceof LauncherAppWidgetInfo) {
+                itemInfo = item;
+            } else if (item instanceof WorkspaceItemFactory) {
+                itemInfo = ((WorkspaceItemFactory) item).makeWorkspaceItem(app.getContext());
+            } else {
+                throw new RuntimeException("Unexpected info type");
+            }
+
+            if (item instanceof WorkspaceItemInfo && ((WorkspaceItemInfo) item).isPromise()) {
+                WorkspaceItemInfo workspaceInfo = (WorkspaceItemInfo) item;
+                String packageName = item.getTargetComponent() != null
+                        ? item.getTargetComponent().getPackageName() : null;
+                if (packageName == null) {
+                    if (TestProtocol.sDebugTracing) {
+                        Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + " Null packageName.");
+                    }
+                    continue;
+                }
+                SessionInfo sessionInfo = packageInstaller.getActiveSessionInfo(item.user,
+                        packageName);
+
+                if (!packageInstaller.verifySessionInfo(sessionInfo)) {
+                    FileLog.d(LOG, "Item info failed session info verification. "
+                            + "Skipping : " + workspaceInfo);
+                    if (TestProtocol.sDebugTracing) {
+                        Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + "Failed verification.");
+                    }
+                    continue;
+                }
+
+                List<LauncherActivityInfo> activities = launcherApps
+                        .getActivityList(packageName, item.user);
+                boolean hasActivity = activities != null && !activities.isEmpty();
+
+                if (sessionInfo == null) {
+                    if (!hasActivity) {
+                        // Session was cancelled, do not add.
+                        if (TestProtocol.sDebugTracing) {
+                            Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + "Session cancelled");
+                        }
+                        continue;
+                    }
+                } else {
+                    workspaceInfo.setProgressLevel(
+                            (int) (sessionInfo.getProgress() * 100),
+                            PackageInstallInfo.STATUS_INSTALLING);
+                }
+
+                if (hasActivity) {
+                    // App was installed while launcher was in the background,
+                    // or app was already installed for another user.
+                    itemInfo = new AppInfo(app.getContext(), activities.get(0), item.user)
+                            .makeWorkspaceItem(app.getContext());
+
+                    if (shortcutExists(dataModel, itemInfo.getIntent(), itemInfo.user)) {
+                        // We need this additional check here since we treat all auto added
+                        // workspace items as promise icons. At this point we now have the
+                        // correct intent to compare against existing workspace icons.
+                        // Icon already exists on the workspace and should not be auto-added.
+                        if (TestProtocol.sDebugTracing) {
+                            Log.d(TestProtocol.MISSING_PROMISE_ICON, LOG + "shortcutExists");
+                        }
+                        continue;
+                    }
+
+                    WorkspaceItemInfo wii = (WorkspaceItemInfo) itemInfo;
+                    wii.title = "";
+                    wii.bitmap = app.getIconCache().getDefaultIcon(item.user);
+                    app.getIconCache().getTitleAndIcon(wii,
+                            ((WorkspaceItemInfo) itemInfo).usingLowResIcon());
+                }
+            }
+
+            // Find appropriate space for the item, once it is known that it will be added.
+            itemsToAdd.add(itemInfo);
+            positions.add(mItemSpaceFinder.findSpaceForItem(app, dataModel, workspaceScreens,
+                    addedWorkspaceScreensFinal, item.spanX, item.spanY));
+        }
+    }
+
     /**
      * Returns true if the shortcuts already exists on the workspace. This must be called after
      * the workspace has been loaded. We identify a shortcut by its intent.
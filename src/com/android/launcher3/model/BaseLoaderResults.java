@@ -27,6 +27,7 @@ import com.android.launcher3.InvariantDeviceProfile;
 import com.android.launcher3.LauncherAppState;
 import com.android.launcher3.LauncherModel.CallbackTask;
 import com.android.launcher3.LauncherSettings;
+import com.android.launcher3.R;
 import com.android.launcher3.config.FeatureFlags;
 import com.android.launcher3.model.BgDataModel.Callbacks;
 import com.android.launcher3.model.BgDataModel.FixedContainerItems;
@@ -36,6 +37,7 @@ import com.android.launcher3.model.data.LauncherAppWidgetInfo;
 import com.android.launcher3.testing.TestProtocol;
 import com.android.launcher3.util.IntArray;
 import com.android.launcher3.util.IntSet;
+import com.android.launcher3.util.IntSparseArrayMap;
 import com.android.launcher3.util.LooperExecutor;
 import com.android.launcher3.util.LooperIdleLock;
 import com.android.launcher3.util.RunnableList;
@@ -249,10 +251,32 @@ public abstract class BaseLoaderResults {
             mExtraItems.forEach(item ->
                     executeCallbacksTask(c -> c.bindExtraContainerItems(item), mUiExecutor));
 
+            // The items of the pages far from the current ones are bound when the pages come
+            // close to the viewport
+            IntSparseArrayMap<RunnableList> pageBindTasks = new IntSparseArrayMap<>();
+            if (FeatureFlags.ENABLE_LAZY_WORKSPACE_PAGE_BINDING.get()) {
+                IntSet nearScreenIds = getScreensNearCurrent(currentScreenIds);
+                IntSparseArrayMap<ArrayList<ItemInfo>> farItems =
+                        removeFarPageItems(nearScreenIds, otherWorkspaceItems);
+                IntSparseArrayMap<ArrayList<LauncherAppWidgetInfo>> farWidgets =
+                        removeFarPageItems(nearScreenIds, otherAppWidgets);
+                for (int i = 0; i < farItems.size(); i++) {
+                    bindWorkspaceItems(farItems.valueAt(i),
+                            getPageBindTasks(pageBindTasks, farItems.keyAt(i))::add);
+                }
+                for (int i = 0; i < farWidgets.size(); i++) {
+                    bindAppWidgets(farWidgets.valueAt(i),
+                            getPageBindTasks(pageBindTasks, farWidgets.keyAt(i))::add);
+                }
+            }
+
             RunnableList pendingTasks = new RunnableList();
             Executor pendingExecutor = pendingTasks::add;
             bindWorkspaceItems(otherWorkspaceItems, pendingExecutor);
             bindAppWidgets(otherAppWidgets, pendingExecutor);
+            if (!pageBindTasks.isEmpty()) {
+                executeCallbacksTask(c -> c.bindPagesLazily(pageBindTasks), pendingExecutor);
+            }
             executeCallbacksTask(c -> c.finishBindingItems(currentScreenIds), pendingExecutor);
             pendingExecutor.execute(
                     () -> {
@@ -270,6 +294,69 @@ public abstract class BaseLoaderResults {
             mCallbacks.bindStringCache(mBgDataModel.stringCache.clone());
         }
 
+        /**
+         * Returns the current pages along with the pages within the lazy bind window around them.
+         */
+        private IntSet getScreensNearCurrent(IntSet currentScreenIds) {
+            // On two panel home, the window is counted in pairs of pages
+            int window = mApp.getContext().getResources().getInteger(
+                    R.integer.config_workspaceLazyBindPageWindow)
+                    * Math.max(1, currentScreenIds.size());
+            int first = -1;
+            int last = -1;
+            for (int i = 0; i < mOrderedScreenIds.size(); i++) {
+                if (currentScreenIds.contains(mOrderedScreenIds.get(i))) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                }
+            }
+            if (first < 0) {
+                first = last = 0;
+            }
+
+            IntSet result = new IntSet();
+            int end = Math.min(mOrderedScreenIds.size() - 1, last + window);
+            for (int i = Math.max(0, first - window); i <= end; i++) {
+                result.add(mOrderedScreenIds.get(i));
+            }
+            return result;
+        }
+
+        /**
+         * Removes the desktop items which are not on {@param nearScreenIds} from {@param items},
+         * and returns them indexed by screen id, keeping their order.
+         */
+        private <T extends ItemInfo> IntSparseArrayMap<ArrayList<T>> removeFarPageItems(
+                IntSet nearScreenIds, ArrayList<T> items) {
+            IntSparseArrayMap<ArrayList<T>> farItems = new IntSparseArrayMap<>();
+            items.removeIf(item -> {
+                if (item.container != LauncherSettings.Favorites.CONTAINER_DESKTOP
+                        || nearScreenIds.contains(item.screenId)) {
+                    return false;
+                }
+                ArrayList<T> pageItems = farItems.get(item.screenId);
+                if (pageItems == null) {
+                    pageItems = new ArrayList<>();
+                    farItems.put(item.screenId, pageItems);
+                }
+                pageItems.add(item);
+                return true;
+            });
+            return farItems;
+        }
+
+        private RunnableList getPageBindTasks(
+                IntSparseArrayMap<RunnableList> pageBindTasks, int screenId) {
+            RunnableList tasks = pageBindTasks.get(screenId);
+            if (tasks == null) {
+                tasks = new RunnableList();
+                pageBindTasks.put(screenId, tasks);
+            }
+            return tasks;
+        }
+
         private void bindWorkspaceItems(
                 final ArrayList<ItemInfo> workspaceItems, final Executor executor) {
             // Bind the workspace items
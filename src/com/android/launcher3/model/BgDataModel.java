@@ -44,6 +44,7 @@ import com.android.launcher3.model.data.ItemInfo;
 import com.android.launcher3.model.data.LauncherAppWidgetInfo;
 import com.android.launcher3.model.data.WorkspaceItemInfo;
 import com.android.launcher3.pm.UserCache;
+import com.android.launcher3.shortcuts.DeepShortcutCache;
 import com.android.launcher3.shortcuts.ShortcutKey;
 import com.android.launcher3.shortcuts.ShortcutRequest;
 import com.android.launcher3.shortcuts.ShortcutRequest.QueryResult;
@@ -109,6 +110,11 @@ public class BgDataModel {
      */
     public final HashMap<ComponentKey, Integer> deepShortcutMap = new HashMap<>();
 
+    /**
+     * Shortcuts of all launcher activities, kept in sync with {@link #deepShortcutMap}.
+     */
+    public final DeepShortcutCache deepShortcutCache = new DeepShortcutCache();
+
     /**
      * Entire list of widgets.
      */
@@ -133,6 +139,7 @@ public class BgDataModel {
         folders.clear();
         itemsIdMap.clear();
         deepShortcutMap.clear();
+        deepShortcutCache.clear();
         extraItems.clear();
     }
 
@@ -178,6 +185,7 @@ public class BgDataModel {
                 writer.print(count + ", ");
             }
             writer.println();
+            deepShortcutCache.dump(prefix, writer);
         }
     }
 
@@ -365,6 +373,7 @@ public class BgDataModel {
 
     /**
      * Clear all the deep shortcut counts for the given package, and re-add the new shortcut counts.
+     * The shortcuts themselves are updated in {@link #deepShortcutCache}.
      */
     public synchronized void updateDeepShortcutCounts(
             String packageName, UserHandle user, List<ShortcutInfo> shortcuts) {
@@ -381,10 +390,7 @@ public class BgDataModel {
 
         // Now add the new shortcuts to the map.
         for (ShortcutInfo shortcut : shortcuts) {
-            boolean shouldShowInContainer = shortcut.isEnabled()
-                    && (shortcut.isDeclaredInManifest() || shortcut.isDynamic())
-                    && shortcut.getActivity() != null;
-            if (shouldShowInContainer) {
+            if (DeepShortcutCache.shouldShowInContainer(shortcut)) {
                 ComponentKey targetComponent
                         = new ComponentKey(shortcut.getActivity(), shortcut.getUserHandle());
 
@@ -392,6 +398,7 @@ public class BgDataModel {
                 deepShortcutMap.put(targetComponent, previousCount == null ? 1 : previousCount + 1);
             }
         }
+        deepShortcutCache.update(packageName, user, shortcuts);
     }
 
     /**
@@ -504,6 +511,14 @@ public class BgDataModel {
             pendingTasks.executeAllAndDestroy();
         }
 
+        /**
+         * Called with the bind tasks of the workspace pages far from the current pages, indexed by
+         * screen id, so that each page can be bound once it is about to be shown.
+         */
+        default void bindPagesLazily(IntSparseArrayMap<RunnableList> pageBindTasks) {
+            pageBindTasks.forEach(RunnableList::executeAllAndDestroy);
+        }
+
         default void bindDeepShortcutMap(HashMap<ComponentKey, Integer> deepShortcutMap) { }
 
         /**
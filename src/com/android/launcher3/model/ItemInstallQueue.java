@@ -149,7 +149,7 @@ public class ItemInstallQueue {
             launcher.getModel().addAndBindAddedWorkspaceItems(installQueue);
         }
         mItems.clear();
-        mStorage.getFile(mContext).delete();
+        mStorage.delete(mContext);
     }
 
     /**
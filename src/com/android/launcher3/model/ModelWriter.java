@@ -22,7 +22,9 @@ import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.net.Uri;
+import android.os.RemoteException;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -271,6 +273,59 @@ public class ModelWriter {
         });
     }
 
+    /**
+     * Adds multiple items to the database in a single transaction. Sets the container, screen,
+     * cellX and cellY fields of each item from {@param positions}, given as
+     * {screenId, cellX, cellY} in the same order as the items. Also assigns an ID to each item.
+     */
+    public void addItemsToDatabase(final List<ItemInfo> items, int container,
+            List<int[]> positions) {
+        if (items.isEmpty()) {
+            return;
+        }
+        final ContentResolver cr = mContext.getContentResolver();
+        for (int i = 0; i < items.size(); i++) {
+            ItemInfo item = items.get(i);
+            int[] position = positions.get(i);
+            updateItemInfoProps(item, container, position[0], position[1], position[2]);
+            item.id = Settings.call(cr, Settings.METHOD_NEW_ITEM_ID).getInt(Settings.EXTRA_VALUE);
+        }
+        final ArrayList<ItemInfo> addedItems = new ArrayList<>(items);
+        notifyOtherCallbacks(c -> c.bindItems(addedItems, false));
+
+        ModelVerifier verifier = new ModelVerifier();
+        final StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        MODEL_EXECUTOR.execute(() -> {
+            // Write the items on background thread, as some properties might have been updated in
+            // the background.
+            ArrayList<ContentProviderOperation> ops = new ArrayList<>(addedItems.size());
+            for (ItemInfo item : addedItems) {
+                final ContentWriter writer = new ContentWriter(mContext);
+                item.onAddToDatabase(writer);
+                writer.put(Favorites._ID, item.id);
+                ops.add(ContentProviderOperation.newInsert(Favorites.CONTENT_URI)
+                        .withValues(writer.getValues(mContext)).build());
+            }
+            try {
+                cr.applyBatch(LauncherProvider.AUTHORITY, ops);
+            } catch (RemoteException | OperationApplicationException e) {
+                // The batch is applied in a single transaction, so none of the items were
+                // written: keep them out of the model and remove them from the other callbacks
+                FileLog.e(TAG, "Unable to add items to the database", e);
+                notifyDelete(addedItems);
+                return;
+            }
+
+            synchronized (mBgDataModel) {
+                for (ItemInfo item : addedItems) {
+                    checkItemInfoLocked(item.id, item, stackTrace);
+                    mBgDataModel.addItem(mContext, item, true);
+                }
+                verifier.verifyModel();
+            }
+        });
+    }
+
     /**
      * Removes the specified item from the database
      */
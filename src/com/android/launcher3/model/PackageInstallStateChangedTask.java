@@ -17,6 +17,7 @@ package com.android.launcher3.model;
 
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
+import android.os.UserHandle;
 
 import com.android.launcher3.LauncherAppState;
 import com.android.launcher3.model.data.AppInfo;
@@ -24,42 +25,50 @@ import com.android.launcher3.model.data.ItemInfo;
 import com.android.launcher3.model.data.LauncherAppWidgetInfo;
 import com.android.launcher3.pm.PackageInstallInfo;
 import com.android.launcher3.util.InstantAppResolver;
+import com.android.launcher3.util.PackageUserKey;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 
 /**
- * Handles changes due to a sessions updates for a currently installing app.
+ * Handles changes due to a sessions updates for currently installing apps.
  */
 public class PackageInstallStateChangedTask extends BaseModelUpdateTask {
 
-    private final PackageInstallInfo mInstallInfo;
+    private final List<PackageInstallInfo> mInstallInfos;
 
     public PackageInstallStateChangedTask(PackageInstallInfo installInfo) {
-        mInstallInfo = installInfo;
+        this(List.of(installInfo));
+    }
+
+    /**
+     * Creates a task applying a batch of install state changes, in order.
+     */
+    public PackageInstallStateChangedTask(List<PackageInstallInfo> installInfos) {
+        mInstallInfos = installInfos;
     }
 
     @Override
     public void execute(LauncherAppState app, BgDataModel dataModel, AllAppsList apps) {
-        if (mInstallInfo.state == PackageInstallInfo.STATUS_INSTALLED) {
-            try {
-                // For instant apps we do not get package-add. Use setting events to update
-                // any pinned icons.
-                ApplicationInfo ai = app.getContext()
-                        .getPackageManager().getApplicationInfo(mInstallInfo.packageName, 0);
-                if (InstantAppResolver.newInstance(app.getContext()).isInstantApp(ai)) {
-                    app.getModel().onPackageAdded(ai.packageName, mInstallInfo.user);
-                }
-            } catch (PackageManager.NameNotFoundException e) {
-                // Ignore
+        // Latest install info of the packages which are still installing
+        final HashMap<PackageUserKey, PackageInstallInfo> installing = new HashMap<>();
+        for (PackageInstallInfo installInfo : mInstallInfos) {
+            PackageUserKey key = new PackageUserKey(installInfo.packageName, installInfo.user);
+            if (installInfo.state == PackageInstallInfo.STATUS_INSTALLED) {
+                installing.remove(key);
+                onPackageInstalled(app, installInfo);
+            } else {
+                installing.put(key, installInfo);
             }
-            // Ignore install success events as they are handled by Package add events.
+        }
+        if (installing.isEmpty()) {
             return;
         }
 
         synchronized (apps) {
-            List<AppInfo> updatedAppInfos = apps.updatePromiseInstallInfo(mInstallInfo);
-            if (!updatedAppInfos.isEmpty()) {
+            for (PackageInstallInfo installInfo : installing.values()) {
+                List<AppInfo> updatedAppInfos = apps.updatePromiseInstallInfo(installInfo);
                 for (AppInfo appInfo : updatedAppInfos) {
                     scheduleCallbackTask(c -> c.bindIncrementalDownloadProgressUpdated(appInfo));
                 }
@@ -69,18 +78,32 @@ public class PackageInstallStateChangedTask extends BaseModelUpdateTask {
 
         synchronized (dataModel) {
             final HashSet<ItemInfo> updates = new HashSet<>();
-            dataModel.forAllWorkspaceItemInfos(mInstallInfo.user, si -> {
-                if (si.hasPromiseIconUi()
-                        && mInstallInfo.packageName.equals(si.getTargetPackage())) {
-                    si.setProgressLevel(mInstallInfo);
-                    updates.add(si);
-                }
-            });
+            final PackageUserKey tempKey = new PackageUserKey(null, null);
+            final HashSet<UserHandle> users = new HashSet<>();
+            for (PackageInstallInfo installInfo : installing.values()) {
+                users.add(installInfo.user);
+            }
+            for (UserHandle user : users) {
+                dataModel.forAllWorkspaceItemInfos(user, si -> {
+                    if (!si.hasPromiseIconUi()) {
+                        return;
+                    }
+                    tempKey.update(si.getTargetPackage(), si.user);
+                    PackageInstallInfo installInfo = installing.get(tempKey);
+                    if (installInfo != null) {
+                        si.setProgressLevel(installInfo);
+                        updates.add(si);
+                    }
+                });
+            }
 
             for (LauncherAppWidgetInfo widget : dataModel.appWidgets) {
-                if (widget.providerName.getPackageName().equals(mInstallInfo.packageName)) {
-                    widget.installProgress = mInstallInfo.progress;
-                    updates.add(widget);
+                String packageName = widget.providerName.getPackageName();
+                for (PackageInstallInfo installInfo : installing.values()) {
+                    if (packageName.equals(installInfo.packageName)) {
+                        widget.installProgress = installInfo.progress;
+                        updates.add(widget);
+                    }
                 }
             }
 
@@ -89,4 +112,19 @@ public class PackageInstallStateChangedTask extends BaseModelUpdateTask {
             }
         }
     }
+
+    private void onPackageInstalled(LauncherAppState app, PackageInstallInfo installInfo) {
+        try {
+            // For instant apps we do not get package-add. Use setting events to update
+            // any pinned icons.
+            ApplicationInfo ai = app.getContext()
+                    .getPackageManager().getApplicationInfo(installInfo.packageName, 0);
+            if (InstantAppResolver.newInstance(app.getContext()).isInstantApp(ai)) {
+                app.getModel().onPackageAdded(ai.packageName, installInfo.user);
+            }
+        } catch (PackageManager.NameNotFoundException e) {
+            // Ignore
+        }
+        // Ignore install success events as they are handled by Package add events.
+    }
 }
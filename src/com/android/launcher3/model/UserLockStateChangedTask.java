@@ -108,6 +108,7 @@ public class UserLockStateChangedTask extends BaseModelUpdateTask {
                 keysIter.remove();
             }
         }
+        dataModel.deepShortcutCache.removeUser(mUser);
 
         if (mIsUserUnlocked) {
             dataModel.updateDeepShortcutCounts(
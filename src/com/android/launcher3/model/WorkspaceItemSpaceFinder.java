@@ -18,6 +18,7 @@ package com.android.launcher3.model;
 import static com.android.launcher3.WorkspaceLayoutManager.FIRST_SCREEN_ID;
 
 import android.util.LongSparseArray;
+import android.util.SparseArray;
 
 import com.android.launcher3.InvariantDeviceProfile;
 import com.android.launcher3.LauncherAppState;
@@ -36,6 +37,27 @@ import java.util.ArrayList;
  */
 public class WorkspaceItemSpaceFinder {
 
+    // Occupancy of each screen while placing items in bulk, or null if not in bulk mode
+    private SparseArray<GridOccupancy> mBulkOccupancy;
+    private LongSparseArray<ArrayList<ItemInfo>> mBulkScreenItems;
+
+    /**
+     * Starts placing multiple items. Until {@link #endBulkPlacement()} is called, the items of
+     * the model are only collected once, the occupancy of each screen is computed once, and the
+     * cells returned by {@link #findSpaceForItem} are marked as occupied for the following items.
+     */
+    public void startBulkPlacement() {
+        mBulkOccupancy = new SparseArray<>();
+    }
+
+    /**
+     * Ends the placement started by {@link #startBulkPlacement()}.
+     */
+    public void endBulkPlacement() {
+        mBulkOccupancy = null;
+        mBulkScreenItems = null;
+    }
+
     /**
      * Find a position on the screen for the given size or adds a new screen.
      *
@@ -43,19 +65,11 @@ public class WorkspaceItemSpaceFinder {
      */
     public int[] findSpaceForItem(LauncherAppState app, BgDataModel dataModel,
             IntArray workspaceScreens, IntArray addedWorkspaceScreensFinal, int spanX, int spanY) {
-        LongSparseArray<ArrayList<ItemInfo>> screenItems = new LongSparseArray<>();
-
-        // Use sBgItemsIdMap as all the items are already loaded.
-        synchronized (dataModel) {
-            for (ItemInfo info : dataModel.itemsIdMap) {
-                if (info.container == LauncherSettings.Favorites.CONTAINER_DESKTOP) {
-                    ArrayList<ItemInfo> items = screenItems.get(info.screenId);
-                    if (items == null) {
-                        items = new ArrayList<>();
-                        screenItems.put(info.screenId, items);
-                    }
-                    items.add(info);
-                }
+        LongSparseArray<ArrayList<ItemInfo>> screenItems = mBulkScreenItems;
+        if (screenItems == null) {
+            screenItems = collectScreenItems(dataModel);
+            if (mBulkOccupancy != null) {
+                mBulkScreenItems = screenItems;
             }
         }
 
@@ -71,7 +85,7 @@ public class WorkspaceItemSpaceFinder {
         for (int screen = 0; screen < screenCount; screen++) {
             screenId = workspaceScreens.get(screen);
             if (!screensToExclude.contains(screenId) && findNextAvailableIconSpaceInScreen(
-                    app, screenItems.get(screenId), coordinates, spanX, spanY)) {
+                    app, screenId, screenItems.get(screenId), coordinates, spanX, spanY)) {
                 // We found a space for it
                 found = true;
                 break;
@@ -90,22 +104,51 @@ public class WorkspaceItemSpaceFinder {
 
             // If we still can't find an empty space, then God help us all!!!
             if (!findNextAvailableIconSpaceInScreen(
-                    app, screenItems.get(screenId), coordinates, spanX, spanY)) {
+                    app, screenId, screenItems.get(screenId), coordinates, spanX, spanY)) {
                 throw new RuntimeException("Can't find space to add the item");
             }
         }
+
+        if (mBulkOccupancy != null) {
+            mBulkOccupancy.get(screenId).markCells(
+                    coordinates[0], coordinates[1], spanX, spanY, true);
+        }
         return new int[]{screenId, coordinates[0], coordinates[1]};
     }
 
+    private LongSparseArray<ArrayList<ItemInfo>> collectScreenItems(BgDataModel dataModel) {
+        LongSparseArray<ArrayList<ItemInfo>> screenItems = new LongSparseArray<>();
+
+        // Use sBgItemsIdMap as all the items are already loaded.
+        synchronized (dataModel) {
+            for (ItemInfo info : dataModel.itemsIdMap) {
+                if (info.container == LauncherSettings.Favorites.CONTAINER_DESKTOP) {
+                    ArrayList<ItemInfo> items = screenItems.get(info.screenId);
+                    if (items == null) {
+                        items = new ArrayList<>();
+                        screenItems.put(info.screenId, items);
+                    }
+                    items.add(info);
+                }
+            }
+        }
+        return screenItems;
+    }
+
     private boolean findNextAvailableIconSpaceInScreen(
-            LauncherAppState app, ArrayList<ItemInfo> occupiedPos,
+            LauncherAppState app, int screenId, ArrayList<ItemInfo> occupiedPos,
             int[] xy, int spanX, int spanY) {
-        InvariantDeviceProfile profile = app.getInvariantDeviceProfile();
-
-        GridOccupancy occupied = new GridOccupancy(profile.numColumns, profile.numRows);
-        if (occupiedPos != null) {
-            for (ItemInfo r : occupiedPos) {
-                occupied.markCells(r, true);
+        GridOccupancy occupied = mBulkOccupancy == null ? null : mBulkOccupancy.get(screenId);
+        if (occupied == null) {
+            InvariantDeviceProfile profile = app.getInvariantDeviceProfile();
+            occupied = new GridOccupancy(profile.numColumns, profile.numRows);
+            if (occupiedPos != null) {
+                for (ItemInfo r : occupiedPos) {
+                    occupied.markCells(r, true);
+                }
+            }
+            if (mBulkOccupancy != null) {
+                mBulkOccupancy.put(screenId, occupied);
             }
         }
         return occupied.findVacantCell(xy, spanX, spanY);
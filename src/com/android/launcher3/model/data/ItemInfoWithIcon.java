@@ -27,6 +27,7 @@ import com.android.launcher3.icons.BitmapInfo.DrawableCreationFlags;
 import com.android.launcher3.icons.FastBitmapDrawable;
 import com.android.launcher3.logging.FileLog;
 import com.android.launcher3.pm.PackageInstallInfo;
+import com.android.launcher3.util.LabelComparator;
 import com.android.launcher3.util.PackageManagerHelper;
 
 /**
@@ -133,6 +134,13 @@ public abstract class ItemInfoWithIcon extends ItemInfo {
      */
     private int mProgressLevel = 100;
 
+    /**
+     * The sort key of the title last used to sort this item, which is recomputed when the title
+     * or the locale changes.
+     */
+    @Nullable
+    public LabelComparator.SortKey titleSortKey;
+
     protected ItemInfoWithIcon() { }
 
     protected ItemInfoWithIcon(ItemInfoWithIcon info) {
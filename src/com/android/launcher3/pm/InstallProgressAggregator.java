@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.pm;
+
+import static com.android.launcher3.pm.PackageInstallInfo.STATUS_INSTALLING;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import androidx.annotation.WorkerThread;
+
+import com.android.launcher3.util.PackageUserKey;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces install progress updates before they reach the model. Installs, and in particular
+ * restores, report progress far more often than it can be displayed: only the latest progress
+ * of each package is kept, each package is updated at a bounded rate, and all the pending
+ * packages are dispatched together at most once per frame.
+ *
+ * State changes other than progress (e.g. install finished or failed) are dispatched immediately
+ * and replace any pending progress of the same package, so that they are never overridden by an
+ * older progress update.
+ */
+@WorkerThread
+public class InstallProgressAggregator {
+
+    // Interval between two batches dispatched to the model
+    private static final long BATCH_INTERVAL_MS = 16;
+    // Minimum interval between two progress updates of the same package
+    private static final long MIN_PACKAGE_UPDATE_INTERVAL_MS = 100;
+
+    private final Handler mHandler;
+    private final Consumer<List<PackageInstallInfo>> mBatchConsumer;
+    private final Runnable mDispatchRunnable = this::dispatchPending;
+
+    private final HashMap<PackageUserKey, PackageInstallInfo> mPending = new HashMap<>();
+    private final HashMap<PackageUserKey, Long> mLastDispatchTime = new HashMap<>();
+    private boolean mDispatchScheduled;
+
+    private long mUpdatesReceived;
+    private long mBatchesDispatched;
+
+    /**
+     * @param handler the handler of the thread on which updates are received
+     * @param batchConsumer receives each batch of install state changes
+     */
+    public InstallProgressAggregator(Handler handler,
+            Consumer<List<PackageInstallInfo>> batchConsumer) {
+        mHandler = handler;
+        mBatchConsumer = batchConsumer;
+    }
+
+    /**
+     * Called when the install state of a package changes.
+     */
+    public void onPackageStateChanged(PackageInstallInfo info) {
+        mUpdatesReceived++;
+        PackageUserKey key = new PackageUserKey(info.packageName, info.user);
+        if (info.state != STATUS_INSTALLING) {
+            mPending.remove(key);
+            mLastDispatchTime.remove(key);
+            dispatch(List.of(info));
+            return;
+        }
+        mPending.put(key, info);
+        scheduleDispatch(BATCH_INTERVAL_MS);
+    }
+
+    private void scheduleDispatch(long delay) {
+        if (!mDispatchScheduled) {
+            mDispatchScheduled = true;
+            mHandler.postDelayed(mDispatchRunnable, delay);
+        }
+    }
+
+    private void dispatchPending() {
+        mDispatchScheduled = false;
+        long now = SystemClock.uptimeMillis();
+        long nextDispatchTime = Long.MAX_VALUE;
+        List<PackageInstallInfo> batch = new ArrayList<>(mPending.size());
+        Iterator<PackageInstallInfo> itr = mPending.values().iterator();
+        while (itr.hasNext()) {
+            PackageInstallInfo info = itr.next();
+            PackageUserKey key = new PackageUserKey(info.packageName, info.user);
+            Long lastDispatchTime = mLastDispatchTime.get(key);
+            long readyTime = lastDispatchTime == null
+                    ? now : lastDispatchTime + MIN_PACKAGE_UPDATE_INTERVAL_MS;
+            if (readyTime > now) {
+                // Updated too recently, keep only the latest progress until it is ready
+                nextDispatchTime = Math.min(nextDispatchTime, readyTime);
+                continue;
+            }
+            itr.remove();
+            mLastDispatchTime.put(key, now);
+            batch.add(info);
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+        if (!mPending.isEmpty()) {
+            scheduleDispatch(Math.max(BATCH_INTERVAL_MS, nextDispatchTime - now));
+        }
+    }
+
+    private void dispatch(List<PackageInstallInfo> batch) {
+        mBatchesDispatched++;
+        mBatchConsumer.accept(batch);
+    }
+
+    public void dump(String prefix, PrintWriter writer) {
+        writer.println(prefix + "InstallProgressAggregator:");
+        writer.println(prefix + "\tupdatesReceived=" + mUpdatesReceived
+                + " tasksDispatched=" + mBatchesDispatched
+                + " reduction=" + (mBatchesDispatched == 0 ? 0
+                        : (float) mUpdatesReceived / mBatchesDispatched) + "x"
+                + " pending=" + mPending.size());
+    }
+}
@@ -46,6 +46,7 @@ import com.android.launcher3.DragSource;
 import com.android.launcher3.DropTarget;
 import com.android.launcher3.DropTarget.DragObject;
 import com.android.launcher3.Launcher;
+import com.android.launcher3.LauncherAppState;
 import com.android.launcher3.R;
 import com.android.launcher3.Utilities;
 import com.android.launcher3.accessibility.LauncherAccessibilityDelegate;
@@ -330,10 +331,15 @@ public class PopupContainerWithArrow<T extends Context & ActivityContext>
         // All views are added. Animate layout from now on.
         setLayoutTransition(new LayoutTransition());
 
-        // Load the shortcuts on a background thread and update the container as it animates.
+        // Populate the shortcuts from the cache, if possible, so that they are shown in the first
+        // frame. They are then loaded on a background thread and the container is updated as it
+        // animates if they have changed.
+        boolean populatedFromCache = PopupPopulator.populateFromCache(
+                LauncherAppState.getInstance(getContext()).getModel().getDeepShortcutCache(),
+                originalItemInfo, this, mShortcuts, notificationKeys);
         MODEL_EXECUTOR.getHandler().postAtFrontOfQueue(PopupPopulator.createUpdateRunnable(
                 mActivityContext, originalItemInfo, new Handler(Looper.getMainLooper()),
-                this, mShortcuts, notificationKeys));
+                this, mShortcuts, notificationKeys, populatedFromCache));
     }
 
     protected NotificationContainer getNotificationContainer() {
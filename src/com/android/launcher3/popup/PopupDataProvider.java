@@ -19,6 +19,7 @@ package com.android.launcher3.popup;
 import android.content.ComponentName;
 import android.service.notification.StatusBarNotification;
 import android.util.Log;
+import android.view.Choreographer;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -38,9 +39,11 @@ import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -67,13 +70,48 @@ public class PopupDataProvider implements NotificationListener.NotificationsChan
 
     private PopupDataChangeListener mChangeListener = PopupDataChangeListener.INSTANCE;
 
+    /**
+     * Packages whose dots changed since the last dispatch. Notifications often arrive in bursts,
+     * so dot changes are coalesced and dispatched to the UI at most once per frame.
+     */
+    @Nullable
+    private Set<PackageUserKey> mPendingDotUpdates = new HashSet<>();
+    private final Choreographer.FrameCallback mDispatchDotUpdates =
+            frameTimeNanos -> dispatchPendingDotUpdates();
+
     public PopupDataProvider(Consumer<Predicate<PackageUserKey>> notificationDotsChangeListener) {
         mNotificationDotsChangeListener = notificationDotsChangeListener;
     }
 
-    private void updateNotificationDots(Predicate<PackageUserKey> updatedDots) {
-        mNotificationDotsChangeListener.accept(updatedDots);
-        mChangeListener.onNotificationDotsUpdated(updatedDots);
+    /**
+     * Drops the pending dot updates and ignores the following ones, to be called when the owner
+     * of this provider is destroyed.
+     */
+    public void destroy() {
+        Choreographer.getInstance().removeFrameCallback(mDispatchDotUpdates);
+        mPendingDotUpdates = null;
+    }
+
+    private void updateNotificationDots(PackageUserKey updatedDot) {
+        if (mPendingDotUpdates == null) {
+            return;
+        }
+        if (mPendingDotUpdates.isEmpty()) {
+            Choreographer.getInstance().postFrameCallback(mDispatchDotUpdates);
+        }
+        mPendingDotUpdates.add(updatedDot);
+    }
+
+    private void dispatchPendingDotUpdates() {
+        if (mPendingDotUpdates == null || mPendingDotUpdates.isEmpty()) {
+            return;
+        }
+        // Swap the set, in case the listeners cause more notification changes
+        Set<PackageUserKey> updatedDots = mPendingDotUpdates;
+        mPendingDotUpdates = new HashSet<>();
+        Predicate<PackageUserKey> predicate = updatedDots::contains;
+        mNotificationDotsChangeListener.accept(predicate);
+        mChangeListener.onNotificationDotsUpdated(predicate);
     }
 
     @Override
@@ -85,7 +123,7 @@ public class PopupDataProvider implements NotificationListener.NotificationsChan
             mPackageUserToDotInfos.put(postedPackageUserKey, dotInfo);
         }
         if (dotInfo.addOrUpdateNotificationKey(notificationKey)) {
-            updateNotificationDots(postedPackageUserKey::equals);
+            updateNotificationDots(postedPackageUserKey);
         }
     }
 
@@ -97,7 +135,7 @@ public class PopupDataProvider implements NotificationListener.NotificationsChan
             if (oldDotInfo.getNotificationKeys().size() == 0) {
                 mPackageUserToDotInfos.remove(removedPackageUserKey);
             }
-            updateNotificationDots(removedPackageUserKey::equals);
+            updateNotificationDots(removedPackageUserKey);
             trimNotifications(mPackageUserToDotInfos);
         }
     }
@@ -133,8 +171,8 @@ public class PopupDataProvider implements NotificationListener.NotificationsChan
             }
         }
 
-        if (!updatedDots.isEmpty()) {
-            updateNotificationDots(updatedDots::containsKey);
+        for (PackageUserKey packageUserKey : updatedDots.keySet()) {
+            updateNotificationDots(packageUserKey);
         }
         trimNotifications(updatedDots);
     }
@@ -25,6 +25,7 @@ import android.os.Handler;
 import android.os.UserHandle;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
 import androidx.annotation.VisibleForTesting;
 
 import com.android.launcher3.LauncherAppState;
@@ -34,8 +35,10 @@ import com.android.launcher3.model.data.WorkspaceItemInfo;
 import com.android.launcher3.notification.NotificationInfo;
 import com.android.launcher3.notification.NotificationKeyData;
 import com.android.launcher3.notification.NotificationListener;
+import com.android.launcher3.shortcuts.DeepShortcutCache;
 import com.android.launcher3.shortcuts.DeepShortcutView;
 import com.android.launcher3.shortcuts.ShortcutRequest;
+import com.android.launcher3.util.ComponentKey;
 import com.android.launcher3.views.ActivityContext;
 
 import java.util.ArrayList;
@@ -127,14 +130,58 @@ public class PopupPopulator {
     }
 
     /**
-     * Returns a runnable to update the provided shortcuts and notifications
+     * Populates the provided shortcut views from the shortcuts and items in the
+     * {@link DeepShortcutCache}, without any call to the shortcut service or the icon cache.
+     *
+     * @return true if all the views were populated, false if some of them still need to be
+     *         loaded in the background.
+     */
+    @UiThread
+    public static boolean populateFromCache(DeepShortcutCache shortcutCache,
+            final ItemInfo originalInfo, final PopupContainerWithArrow container,
+            final List<DeepShortcutView> shortcutViews,
+            final List<NotificationKeyData> notificationKeys) {
+        ComponentName activity = originalInfo.getTargetComponent();
+        if (activity == null) {
+            return false;
+        }
+        List<ShortcutInfo> cached =
+                shortcutCache.getShortcuts(new ComponentKey(activity, originalInfo.user));
+        if (cached == null) {
+            return false;
+        }
+        List<ShortcutInfo> shortcuts = sortAndFilterShortcuts(
+                new ArrayList<>(cached), getShortcutIdToDeDupe(notificationKeys));
+        boolean populatedAll = shortcuts.size() >= shortcutViews.size();
+        for (int i = 0; i < shortcuts.size() && i < shortcutViews.size(); i++) {
+            ShortcutInfo shortcut = shortcuts.get(i);
+            WorkspaceItemInfo item = shortcutCache.getItem(shortcut);
+            if (item == null) {
+                populatedAll = false;
+                continue;
+            }
+            WorkspaceItemInfo si = new WorkspaceItemInfo(item);
+            si.rank = i;
+            si.container = CONTAINER_SHORTCUTS;
+            shortcutViews.get(i).applyShortcutInfo(si, shortcut, container);
+        }
+        return populatedAll;
+    }
+
+    /**
+     * Returns a runnable to update the provided shortcuts and notifications.
+     *
+     * The shortcuts are first loaded from the {@link DeepShortcutCache}, unless the views were
+     * already populated from it, and then revalidated with the shortcut service. The views are
+     * only updated again if the shortcuts have changed.
      */
     public static <T extends Context & ActivityContext> Runnable createUpdateRunnable(
             final T context,
             final ItemInfo originalInfo,
             final Handler uiHandler, final PopupContainerWithArrow container,
             final List<DeepShortcutView> shortcutViews,
-            final List<NotificationKeyData> notificationKeys) {
+            final List<NotificationKeyData> notificationKeys,
+            final boolean populatedFromCache) {
         final ComponentName activity = originalInfo.getTargetComponent();
         final UserHandle user = originalInfo.user;
         return () -> {
@@ -152,23 +199,76 @@ public class PopupPopulator {
                 uiHandler.post(() -> container.applyNotificationInfos(infos));
             }
 
+            LauncherAppState app = LauncherAppState.getInstance(context);
+            DeepShortcutCache shortcutCache = app.getModel().getDeepShortcutCache();
+            ComponentKey key = activity == null ? null : new ComponentKey(activity, user);
+            String shortcutIdToDeDupe = getShortcutIdToDeDupe(notificationKeys);
+
+            List<ShortcutInfo> cached = key == null ? null : shortcutCache.getShortcuts(key);
+            if (cached != null) {
+                cached = sortAndFilterShortcuts(new ArrayList<>(cached), shortcutIdToDeDupe);
+                if (!populatedFromCache) {
+                    applyShortcuts(context, app.getIconCache(), shortcutCache, cached,
+                            false /* reloadItems */, uiHandler, container, shortcutViews);
+                }
+            }
+
             List<ShortcutInfo> shortcuts = new ShortcutRequest(context, user)
                     .withContainer(activity)
                     .query(ShortcutRequest.PUBLISHED);
-            String shortcutIdToDeDupe = notificationKeys.isEmpty() ? null
-                    : notificationKeys.get(0).shortcutId;
-            shortcuts = PopupPopulator.sortAndFilterShortcuts(shortcuts, shortcutIdToDeDupe);
-            IconCache cache = LauncherAppState.getInstance(context).getIconCache();
-            for (int i = 0; i < shortcuts.size() && i < shortcutViews.size(); i++) {
-                final ShortcutInfo shortcut = shortcuts.get(i);
-                final WorkspaceItemInfo si = new WorkspaceItemInfo(shortcut, context);
-                cache.getShortcutIcon(si, shortcut);
-                si.rank = i;
-                si.container = CONTAINER_SHORTCUTS;
-
-                final DeepShortcutView view = shortcutViews.get(i);
-                uiHandler.post(() -> view.applyShortcutInfo(si, shortcut, container));
+            if (key != null) {
+                shortcutCache.updateActivity(key, shortcuts);
+            }
+            shortcuts = sortAndFilterShortcuts(shortcuts, shortcutIdToDeDupe);
+            if (cached == null || !isSameShortcuts(cached, shortcuts)) {
+                applyShortcuts(context, app.getIconCache(), shortcutCache, shortcuts,
+                        cached != null /* reloadItems */, uiHandler, container, shortcutViews);
             }
         };
     }
+
+    @Nullable
+    private static String getShortcutIdToDeDupe(List<NotificationKeyData> notificationKeys) {
+        return notificationKeys.isEmpty() ? null : notificationKeys.get(0).shortcutId;
+    }
+
+    private static <T extends Context & ActivityContext> void applyShortcuts(T context,
+            IconCache iconCache, DeepShortcutCache shortcutCache, List<ShortcutInfo> shortcuts,
+            boolean reloadItems, Handler uiHandler, PopupContainerWithArrow container,
+            List<DeepShortcutView> shortcutViews) {
+        for (int i = 0; i < shortcuts.size() && i < shortcutViews.size(); i++) {
+            final ShortcutInfo shortcut = shortcuts.get(i);
+            WorkspaceItemInfo item = reloadItems ? null : shortcutCache.getItem(shortcut);
+            if (item == null) {
+                item = new WorkspaceItemInfo(shortcut, context);
+                iconCache.getShortcutIcon(item, shortcut);
+                shortcutCache.putItem(shortcut, item);
+            }
+            final WorkspaceItemInfo si = new WorkspaceItemInfo(item);
+            si.rank = i;
+            si.container = CONTAINER_SHORTCUTS;
+
+            final DeepShortcutView view = shortcutViews.get(i);
+            uiHandler.post(() -> view.applyShortcutInfo(si, shortcut, container));
+        }
+    }
+
+    /**
+     * Returns true if both lists contain the same versions of the same shortcuts, in the same
+     * order.
+     */
+    private static boolean isSameShortcuts(List<ShortcutInfo> a, List<ShortcutInfo> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            ShortcutInfo sa = a.get(i);
+            ShortcutInfo sb = b.get(i);
+            if (!sa.getId().equals(sb.getId())
+                    || sa.getLastChangedTimestamp() != sb.getLastChangedTimestamp()) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
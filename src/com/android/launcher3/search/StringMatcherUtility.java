@@ -16,6 +16,8 @@
 
 package com.android.launcher3.search;
 
+import com.android.launcher3.util.IntArray;
+
 import java.text.Collator;
 
 /**
@@ -58,6 +60,61 @@ public class StringMatcherUtility {
         return false;
     }
 
+    /**
+     * Same as {@link #matches(String, String, StringMatcher)}, using the word start indices of
+     * {@code target} precomputed by {@link #getWordStartIndices(String)}. This avoids classifying
+     * the characters of targets which are matched against many queries.
+     */
+    public static boolean matches(String query, String target, int[] wordStartIndices,
+            StringMatcher matcher) {
+        int queryLength = query.length();
+        int targetLength = target.length();
+        if (targetLength < queryLength || queryLength <= 0) {
+            return false;
+        }
+
+        if (requestSimpleFuzzySearch(query)) {
+            return target.toLowerCase().contains(query);
+        }
+
+        int end = targetLength - queryLength;
+        for (int i : wordStartIndices) {
+            if (i > end) {
+                break;
+            }
+            if (matcher.matches(query, target.substring(i, i + queryLength))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the indices of {@code target}, in ascending order, at which
+     * {@link #matches(String, String, StringMatcher)} tries to match a query.
+     */
+    public static int[] getWordStartIndices(String target) {
+        int targetLength = target.length();
+        IntArray result = new IntArray();
+        if (targetLength == 0) {
+            return result.toArray();
+        }
+
+        int lastType;
+        int thisType = Character.UNASSIGNED;
+        int nextType = Character.getType(target.codePointAt(0));
+        for (int i = 0; i < targetLength; i++) {
+            lastType = thisType;
+            thisType = nextType;
+            nextType = i < (targetLength - 1)
+                    ? Character.getType(target.codePointAt(i + 1)) : Character.UNASSIGNED;
+            if (isBreak(thisType, lastType, nextType)) {
+                result.add(i);
+            }
+        }
+        return result.toArray();
+    }
+
     /**
      * Returns true if the current point should be a break point. Following cases
      * are considered as break points:
@@ -147,7 +204,7 @@ public class StringMatcherUtility {
     /**
      * Matching optimization to search in Chinese.
      */
-    private static boolean requestSimpleFuzzySearch(String s) {
+    public static boolean requestSimpleFuzzySearch(String s) {
         for (int i = 0; i < s.length(); ) {
             int codepoint = s.codePointAt(i);
             i += Character.charCount(codepoint);
@@ -140,6 +140,7 @@ public class SecondaryDisplayLauncher extends BaseDraggingActivity
     protected void onDestroy() {
         super.onDestroy();
         mModel.removeCallbacks(this);
+        mPopupDataProvider.destroy();
     }
 
     public boolean isAppDrawerShown() {
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.shortcuts;
+
+import android.content.pm.ShortcutInfo;
+import android.os.UserHandle;
+
+import androidx.annotation.Nullable;
+
+import com.android.launcher3.model.data.WorkspaceItemInfo;
+import com.android.launcher3.util.ComponentKey;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Cache of the shortcuts published by each launcher activity, so that the long-press popup can be
+ * populated without a call to the shortcut service.
+ *
+ * The shortcuts are updated by the model along with the deep shortcut counts, and the items
+ * created for them (with their icon) are added once the popup has loaded them on the model
+ * thread. The cache can be read on any thread.
+ */
+public class DeepShortcutCache {
+
+    private final ConcurrentHashMap<ComponentKey, List<ShortcutInfo>> mShortcuts =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ShortcutKey, WorkspaceItemInfo> mItems =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Returns true if the shortcut should be shown in the popup of its activity.
+     */
+    public static boolean shouldShowInContainer(ShortcutInfo shortcut) {
+        return shortcut.isEnabled()
+                && (shortcut.isDeclaredInManifest() || shortcut.isDynamic())
+                && shortcut.getActivity() != null;
+    }
+
+    /**
+     * Replaces the shortcuts of the provided package, or adds the shortcuts to the existing ones
+     * if the package is null.
+     */
+    public void update(@Nullable String packageName, UserHandle user,
+            List<ShortcutInfo> shortcuts) {
+        if (packageName != null) {
+            Predicate<ComponentKey> inPackage = key ->
+                    key.componentName.getPackageName().equals(packageName)
+                            && key.user.equals(user);
+            mShortcuts.keySet().removeIf(inPackage);
+            // The icons and labels may have changed along with the shortcuts
+            mItems.keySet().removeIf(inPackage);
+        }
+
+        HashMap<ComponentKey, List<ShortcutInfo>> shortcutsByActivity = new HashMap<>();
+        for (ShortcutInfo shortcut : shortcuts) {
+            if (shouldShowInContainer(shortcut)) {
+                shortcutsByActivity.computeIfAbsent(
+                        new ComponentKey(shortcut.getActivity(), shortcut.getUserHandle()),
+                        k -> new ArrayList<>()).add(shortcut);
+            }
+        }
+        for (Map.Entry<ComponentKey, List<ShortcutInfo>> entry : shortcutsByActivity.entrySet()) {
+            mShortcuts.merge(entry.getKey(), Collections.unmodifiableList(entry.getValue()),
+                    (oldList, newList) -> {
+                        List<ShortcutInfo> merged = new ArrayList<>(oldList);
+                        merged.addAll(newList);
+                        return Collections.unmodifiableList(merged);
+                    });
+        }
+    }
+
+    /**
+     * Replaces the shortcuts of a single activity, with shortcuts queried for that activity.
+     */
+    public void updateActivity(ComponentKey activity, List<ShortcutInfo> shortcuts) {
+        List<ShortcutInfo> filtered = new ArrayList<>(shortcuts.size());
+        for (ShortcutInfo shortcut : shortcuts) {
+            if (shouldShowInContainer(shortcut)) {
+                filtered.add(shortcut);
+            }
+        }
+        mShortcuts.put(activity, Collections.unmodifiableList(filtered));
+    }
+
+    /**
+     * Returns the cached shortcuts of the provided activity, or null if they are not known.
+     */
+    @Nullable
+    public List<ShortcutInfo> getShortcuts(ComponentKey activity) {
+        return mShortcuts.get(activity);
+    }
+
+    /**
+     * Returns the item previously created for the provided shortcut, or null if there is none.
+     * The returned item should be copied before being modified.
+     */
+    @Nullable
+    public WorkspaceItemInfo getItem(ShortcutInfo shortcut) {
+        return mItems.get(ShortcutKey.fromInfo(shortcut));
+    }
+
+    /**
+     * Caches the item created for the provided shortcut, including its icon.
+     */
+    public void putItem(ShortcutInfo shortcut, WorkspaceItemInfo item) {
+        mItems.put(ShortcutKey.fromInfo(shortcut), item);
+    }
+
+    /**
+     * Removes all the shortcuts of the provided user.
+     */
+    public void removeUser(UserHandle user) {
+        mShortcuts.keySet().removeIf(key -> key.user.equals(user));
+        mItems.keySet().removeIf(key -> key.user.equals(user));
+    }
+
+    public void clear() {
+        mShortcuts.clear();
+        mItems.clear();
+    }
+
+    public void dump(String prefix, PrintWriter writer) {
+        writer.println(prefix + "DeepShortcutCache: activities=" + mShortcuts.size()
+                + " items=" + mItems.size());
+    }
+}
@@ -147,7 +147,12 @@ public class DeepShortcutView extends FrameLayout implements BubbleTextHolder {
 
         // Use the long label as long as it exists and fits.
         CharSequence longLabel = mDetail.getLongLabel();
-        int availableWidth = mBubbleText.getWidth() - mBubbleText.getTotalPaddingLeft()
+        int width = mBubbleText.getWidth();
+        if (width == 0 && getLayoutParams() != null && getLayoutParams().width > 0) {
+            // Not laid out yet when populated from the cache, the text fills this view.
+            width = getLayoutParams().width;
+        }
+        int availableWidth = width - mBubbleText.getTotalPaddingLeft()
                 - mBubbleText.getTotalPaddingRight();
         boolean usingLongLabel = !TextUtils.isEmpty(longLabel)
                 && mBubbleText.getPaint().measureText(longLabel.toString()) <= availableWidth;
@@ -15,32 +15,102 @@
  */
 package com.android.launcher3.util;
 
+import androidx.annotation.Nullable;
+
+import com.android.launcher3.model.data.ItemInfoWithIcon;
+
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.Comparator;
+import java.util.Locale;
 
 /**
  * Extension of {@link java.text.Collator} with special handling for digits. Used for comparing
  * user visible labels.
+ *
+ * Labels which are compared many times, like the titles of apps while sorting, can be compared
+ * through their {@link SortKey} instead, which is computed once per label and locale.
  */
 public class LabelComparator implements Comparator<String> {
 
-    private final Collator mCollator = Collator.getInstance();
+    private final Locale mLocale = Locale.getDefault();
+    private final Collator mCollator = Collator.getInstance(mLocale);
 
     @Override
     public int compare(String titleA, String titleB) {
         // Ensure that we de-prioritize any titles that don't start with a
         // linguistic letter or digit
-        boolean aStartsWithLetter = (titleA.length() > 0) &&
-                Character.isLetterOrDigit(titleA.codePointAt(0));
-        boolean bStartsWithLetter = (titleB.length() > 0) &&
-                Character.isLetterOrDigit(titleB.codePointAt(0));
+        int result = compareStartsWithLetter(startsWithLetter(titleA), startsWithLetter(titleB));
+        if (result != 0) {
+            return result;
+        }
+
+        // Order by the title in the current locale
+        return mCollator.compare(titleA, titleB);
+    }
+
+    /**
+     * Compares the labels of two sort keys, in the same order as {@link #compare(String, String)}.
+     */
+    public int compare(SortKey a, SortKey b) {
+        int result = compareStartsWithLetter(a.mStartsWithLetter, b.mStartsWithLetter);
+        return result != 0 ? result : a.mCollationKey.compareTo(b.mCollationKey);
+    }
+
+    /**
+     * Returns the sort key of {@param label}, reusing {@param cached} if it was computed for the
+     * same label in the current locale.
+     */
+    public SortKey getSortKey(@Nullable SortKey cached, String label) {
+        return cached != null && cached.mLocale.equals(mLocale) && cached.mLabel.equals(label)
+                ? cached : new SortKey(label, mLocale, mCollator.getCollationKey(label));
+    }
+
+    /**
+     * Returns the sort key of the title of {@param info}, which is kept on the item until its
+     * title changes.
+     */
+    public SortKey getTitleSortKey(ItemInfoWithIcon info) {
+        SortKey key = getSortKey(info.titleSortKey,
+                info.title == null ? "" : info.title.toString());
+        info.titleSortKey = key;
+        return key;
+    }
+
+    private static boolean startsWithLetter(String title) {
+        return title.length() > 0 && Character.isLetterOrDigit(title.codePointAt(0));
+    }
+
+    private static int compareStartsWithLetter(boolean aStartsWithLetter,
+            boolean bStartsWithLetter) {
         if (aStartsWithLetter && !bStartsWithLetter) {
             return -1;
         } else if (!aStartsWithLetter && bStartsWithLetter) {
             return 1;
         }
+        return 0;
+    }
 
-        // Order by the title in the current locale
-        return mCollator.compare(titleA, titleB);
+    /**
+     * A label along with its precomputed collation key, which can be compared to the keys of
+     * other labels with a byte comparison.
+     */
+    public static final class SortKey {
+
+        private final String mLabel;
+        private final Locale mLocale;
+        private final boolean mStartsWithLetter;
+        private final CollationKey mCollationKey;
+
+        private SortKey(String label, Locale locale, CollationKey collationKey) {
+            mLabel = label;
+            mLocale = locale;
+            mStartsWithLetter = startsWithLetter(label);
+            mCollationKey = collationKey;
+        }
+
+        public String getLabel() {
+            return mLabel;
+        }
     }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.util;
+
+import static com.android.launcher3.config.FeatureFlags.ENABLE_CACHED_LABEL_LAYOUTS;
+import static com.android.launcher3.util.Executors.MAIN_EXECUTOR;
+import static com.android.launcher3.util.Executors.createAndStartNewLooper;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Process;
+import android.text.PrecomputedText;
+import android.text.PrecomputedText.Params;
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.util.LruCache;
+import android.util.Pair;
+import android.widget.TextView;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import com.android.launcher3.Utilities;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache of the measured text of icon labels, shared by all the icons which use the same text
+ * parameters (text size, typeface, letter spacing, etc).
+ *
+ * The labels are measured on a background thread, either when an unknown label is displayed or,
+ * for all the app labels, when the apps are bound or an icon with new text parameters is
+ * displayed. Views then only need to lay out the measured text.
+ */
+@TargetApi(Build.VERSION_CODES.P)
+public class LabelLayoutCache {
+
+    public static final LabelLayoutCache INSTANCE = new LabelLayoutCache();
+
+    // The number of labels cached in addition to the prewarmed labels, for the labels which are
+    // not app titles (shortcuts, folders, widgets, ...) or shown before the apps are bound
+    private static final int MIN_CACHED_LABELS = 2000;
+    // Different icon types (workspace, all apps, folder, ...) use different text parameters
+    private static final int MAX_KNOWN_PARAMS = 8;
+
+    private final LruCache<Pair<String, Params>, PrecomputedText> mCache =
+            new LruCache<>(MIN_CACHED_LABELS);
+
+    // Only accessed on the UI thread
+    private final ArrayList<Params> mKnownParams = new ArrayList<>();
+    private final ArrayList<Pair<String, Params>> mPending = new ArrayList<>();
+    private String[] mPrewarmLabels = new String[0];
+    private boolean mComputeScheduled;
+    private int mHitCount;
+    private int mMissCount;
+
+    @Nullable
+    private LooperExecutor mExecutor;
+
+    private LabelLayoutCache() { }
+
+    /**
+     * Returns the text to display for {@param label} in the provided view, which is the measured
+     * text if it is available or the label itself otherwise.
+     */
+    @UiThread
+    @Nullable
+    public CharSequence getLabel(@Nullable CharSequence label, TextView view) {
+        if (!Utilities.ATLEAST_P || !ENABLE_CACHED_LABEL_LAYOUTS.get()
+                || TextUtils.isEmpty(label) || label instanceof Spanned) {
+            return label;
+        }
+        Params params = view.getTextMetricsParams();
+        Pair<String, Params> key = Pair.create(label.toString(), params);
+        PrecomputedText text = mCache.get(key);
+        if (text != null) {
+            mHitCount++;
+            return text;
+        }
+        mMissCount++;
+
+        if (!mKnownParams.contains(params)) {
+            if (mKnownParams.size() >= MAX_KNOWN_PARAMS) {
+                mKnownParams.remove(0);
+            }
+            mKnownParams.add(params);
+            updateCacheSize();
+            addPrewarmLabels(params);
+        }
+        mPending.add(key);
+        scheduleCompute();
+        return label;
+    }
+
+    /**
+     * Sets the labels to be measured for all the known text parameters, typically the labels of
+     * all the apps.
+     */
+    @UiThread
+    public void prewarm(List<? extends CharSequence> labels) {
+        if (!Utilities.ATLEAST_P || !ENABLE_CACHED_LABEL_LAYOUTS.get()) {
+            return;
+        }
+        ArrayList<String> prewarmLabels = new ArrayList<>(labels.size());
+        for (CharSequence label : labels) {
+            if (!TextUtils.isEmpty(label) && !(label instanceof Spanned)) {
+                prewarmLabels.add(label.toString());
+            }
+        }
+        mPrewarmLabels = prewarmLabels.toArray(new String[0]);
+        updateCacheSize();
+        for (Params params : mKnownParams) {
+            addPrewarmLabels(params);
+        }
+        scheduleCompute();
+    }
+
+    /**
+     * Sizes the cache so that the prewarmed labels of all the known text parameters fit, otherwise
+     * each prewarm pass would evict the labels it measured first, including the displayed ones.
+     */
+    private void updateCacheSize() {
+        mCache.resize(MIN_CACHED_LABELS + mPrewarmLabels.length * mKnownParams.size());
+    }
+
+    private void addPrewarmLabels(Params params) {
+        for (String label : mPrewarmLabels) {
+            mPending.add(Pair.create(label, params));
+        }
+    }
+
+    private void scheduleCompute() {
+        if (mComputeScheduled || mPending.isEmpty()) {
+            return;
+        }
+        mComputeScheduled = true;
+        // Wait for the current frame to be done, so that the labels it displays are batched
+        MAIN_EXECUTOR.post(() -> {
+            mComputeScheduled = false;
+            ArrayList<Pair<String, Params>> keys = new ArrayList<>(mPending);
+            mPending.clear();
+            getExecutor().execute(() -> compute(keys));
+        });
+    }
+
+    private LooperExecutor getExecutor() {
+        if (mExecutor == null) {
+            // A single thread, as the measurements of the same parameters share the same paint
+            mExecutor = new LooperExecutor(createAndStartNewLooper(
+                    "launcher-label-layouts", Process.THREAD_PRIORITY_BACKGROUND));
+        }
+        return mExecutor;
+    }
+
+    private void compute(List<Pair<String, Params>> keys) {
+        for (Pair<String, Params> key : keys) {
+            if (mCache.get(key) == null) {
+                mCache.put(key, PrecomputedText.create(key.first, key.second));
+            }
+        }
+    }
+
+    public void dump(String prefix, PrintWriter writer) {
+        writer.println(prefix + "LabelLayoutCache: size=" + mCache.size()
+                + " maxSize=" + mCache.maxSize()
+                + " hits=" + mHitCount + " misses=" + mMissCount
+                + " knownParams=" + mKnownParams.size());
+    }
+}
@@ -24,6 +24,7 @@ import android.util.Log;
 import android.util.Xml;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
 import com.android.launcher3.AutoInstallsLayout;
@@ -33,13 +34,18 @@ import com.android.launcher3.pm.UserCache;
 
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
-import org.xmlpull.v1.XmlSerializer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -49,6 +55,13 @@ import java.util.function.LongFunction;
 /**
  * Utility class to read/write a list of {@link com.android.launcher3.model.data.ItemInfo} on disk.
  * This class is not thread safe, the caller should ensure proper threading
+ *
+ * Items are stored in a compact columnar binary format:
+ *   int magic, int version, int count,
+ *   int[count] item types, long[count] profile serials,
+ *   int[count] end offsets of the intents in the intent data, byte[] UTF-8 intent data
+ * The file is memory mapped when read, and is not rewritten if the items did not change.
+ * Files written in the previous xml format are migrated on first read.
  */
 public class PersistedItemArray<T extends ItemInfo> {
 
@@ -57,10 +70,17 @@ public class PersistedItemArray<T extends ItemInfo> {
     private static final String TAG_ROOT = "items";
     private static final String TAG_ENTRY = "entry";
 
+    private static final int MAGIC = 0x4C504941;
+    @VisibleForTesting
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
     private final String mFileName;
+    private final String mLegacyFileName;
 
     public PersistedItemArray(String fileName) {
-        mFileName = fileName + ".xml";
+        mFileName = fileName + ".bin";
+        mLegacyFileName = fileName + ".xml";
     }
 
     /**
@@ -68,44 +88,94 @@ public class PersistedItemArray<T extends ItemInfo> {
      */
     @WorkerThread
     public void write(Context context, List<T> items) {
+        UserCache userCache = UserCache.INSTANCE.get(context);
+        int count = 0;
+        int[] itemTypes = new int[items.size()];
+        long[] profileIds = new long[items.size()];
+        byte[][] intents = new byte[items.size()][];
+        for (T item : items) {
+            Intent intent = item.getIntent();
+            if (intent == null) {
+                continue;
+            }
+            itemTypes[count] = item.itemType;
+            profileIds[count] = userCache.getSerialNumberForUser(item.user);
+            intents[count] = intent.toUri(0).getBytes(StandardCharsets.UTF_8);
+            count++;
+        }
+        writeColumns(context, encode(count, itemTypes, profileIds, intents));
+    }
+
+    @VisibleForTesting
+    static byte[] encode(int count, int[] itemTypes, long[] profileIds, byte[][] intents) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(itemTypes[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeLong(profileIds[i]);
+            }
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                offset += intents[i].length;
+                out.writeInt(offset);
+            }
+            for (int i = 0; i < count; i++) {
+                out.write(intents[i]);
+            }
+        } catch (IOException e) {
+            // Not expected when writing to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the encoded items to the disk, and returns true if the file has the provided content
+     */
+    private boolean writeColumns(Context context, byte[] data) {
         AtomicFile file = getFile(context);
+        if (hasContent(file, data)) {
+            // Avoid rewriting and syncing the file if nothing changed
+            return true;
+        }
+
         FileOutputStream fos;
         try {
             fos = file.startWrite();
         } catch (IOException e) {
             Log.e(TAG, "Unable to persist items in " + mFileName, e);
-            return;
+            return false;
         }
-
-        UserCache userCache = UserCache.INSTANCE.get(context);
-
         try {
-            XmlSerializer out = Xml.newSerializer();
-            out.setOutput(fos, StandardCharsets.UTF_8.name());
-            out.startDocument(null, true);
-            out.startTag(null, TAG_ROOT);
-            for (T item : items) {
-                Intent intent = item.getIntent();
-                if (intent == null) {
-                    continue;
-                }
-
-                out.startTag(null, TAG_ENTRY);
-                out.attribute(null, Favorites.ITEM_TYPE, Integer.toString(item.itemType));
-                out.attribute(null, Favorites.PROFILE_ID,
-                        Long.toString(userCache.getSerialNumberForUser(item.user)));
-                out.attribute(null, Favorites.INTENT, intent.toUri(0));
-                out.endTag(null, TAG_ENTRY);
-            }
-            out.endTag(null, TAG_ROOT);
-            out.endDocument();
+            fos.write(data);
         } catch (IOException e) {
             file.failWrite(fos);
             Log.e(TAG, "Unable to persist items in " + mFileName, e);
-            return;
+            return false;
         }
-
         file.finishWrite(fos);
+        return true;
+    }
+
+    private static boolean hasContent(AtomicFile file, byte[] data) {
+        if (!file.getBaseFile().exists() || file.getBaseFile().length() != data.length) {
+            return false;
+        }
+        try (FileInputStream fis = file.openRead()) {
+            return map(fis).equals(ByteBuffer.wrap(data));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer map(FileInputStream fis) throws IOException {
+        FileChannel channel = fis.getChannel();
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
     }
 
     /**
@@ -122,8 +192,89 @@ public class PersistedItemArray<T extends ItemInfo> {
      */
     @WorkerThread
     public List<T> read(Context context, ItemFactory<T> factory, LongFunction<UserHandle> userFn) {
-        List<T> result = new ArrayList<>();
+        File legacyFile = context.getFileStreamPath(mLegacyFileName);
+        if (legacyFile.exists()) {
+            return migrateLegacyFile(context, factory, userFn);
+        }
+
         try (FileInputStream fis = getFile(context).openRead()) {
+            return decodeItems(map(fis), factory, userFn);
+        } catch (FileNotFoundException e) {
+            // Ignore
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            Log.e(TAG, "Unable to read items in " + mFileName, e);
+        }
+        return Collections.emptyList();
+    }
+
+    private List<T> decodeItems(ByteBuffer buffer, ItemFactory<T> factory,
+            LongFunction<UserHandle> userFn) throws IOException {
+        List<T> result = new ArrayList<>();
+        decode(buffer, (itemType, profileId, intentUri) -> {
+            try {
+                UserHandle user = userFn.apply(profileId);
+                Intent intent = Intent.parseUri(intentUri, 0);
+                if (user != null && intent != null) {
+                    T item = factory.createInfo(itemType, user, intent);
+                    if (item != null) {
+                        result.add(item);
+                    }
+                }
+            } catch (Exception e) {
+                // Ignore this entry
+            }
+        });
+        return result;
+    }
+
+    @VisibleForTesting
+    static void decode(ByteBuffer buffer, EntryVisitor visitor) throws IOException {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Invalid file");
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version);
+        }
+        int count = buffer.getInt(2 * Integer.BYTES);
+        // Check the sizes read from the file, which may be corrupt or truncated
+        if (count < 0 || HEADER_SIZE + (long) count * (2 * Integer.BYTES + Long.BYTES)
+                > buffer.limit()) {
+            throw new IOException("Invalid item count " + count);
+        }
+        int typesStart = HEADER_SIZE;
+        int profilesStart = typesStart + count * Integer.BYTES;
+        int offsetsStart = profilesStart + count * Long.BYTES;
+        int intentsStart = offsetsStart + count * Integer.BYTES;
+
+        int intentStart = 0;
+        for (int i = 0; i < count; i++) {
+            int intentEnd = buffer.getInt(offsetsStart + i * Integer.BYTES);
+            if (intentEnd < intentStart || intentEnd > buffer.limit() - intentsStart) {
+                throw new IOException("Invalid intent offset " + intentEnd);
+            }
+            ByteBuffer intentData = buffer.duplicate();
+            intentData.position(intentsStart + intentStart);
+            intentData.limit(intentsStart + intentEnd);
+            visitor.visit(
+                    buffer.getInt(typesStart + i * Integer.BYTES),
+                    buffer.getLong(profilesStart + i * Long.BYTES),
+                    StandardCharsets.UTF_8.decode(intentData).toString());
+            intentStart = intentEnd;
+        }
+    }
+
+    /**
+     * Reads the items from a file in the previous xml format, and replaces it with the current
+     * format.
+     */
+    private List<T> migrateLegacyFile(
+            Context context, ItemFactory<T> factory, LongFunction<UserHandle> userFn) {
+        AtomicFile legacyFile = new AtomicFile(context.getFileStreamPath(mLegacyFileName));
+        List<Integer> itemTypes = new ArrayList<>();
+        List<Long> profileIds = new ArrayList<>();
+        List<String> intents = new ArrayList<>();
+        try (FileInputStream fis = legacyFile.openRead()) {
             XmlPullParser parser = Xml.newPullParser();
             parser.setInput(new InputStreamReader(fis, StandardCharsets.UTF_8));
 
@@ -139,28 +290,47 @@ public class PersistedItemArray<T extends ItemInfo> {
                 try {
                     int itemType = Integer.parseInt(
                             parser.getAttributeValue(null, Favorites.ITEM_TYPE));
-                    UserHandle user = userFn.apply(Long.parseLong(
-                            parser.getAttributeValue(null, Favorites.PROFILE_ID)));
-                    Intent intent = Intent.parseUri(
-                            parser.getAttributeValue(null, Favorites.INTENT), 0);
-
-                    if (user != null && intent != null) {
-                        T item = factory.createInfo(itemType, user, intent);
-                        if (item != null) {
-                            result.add(item);
-                        }
+                    long profileId = Long.parseLong(
+                            parser.getAttributeValue(null, Favorites.PROFILE_ID));
+                    String intent = parser.getAttributeValue(null, Favorites.INTENT);
+                    if (intent != null) {
+                        itemTypes.add(itemType);
+                        profileIds.add(profileId);
+                        intents.add(intent);
                     }
                 } catch (Exception e) {
                     // Ignore this entry
                 }
             }
-        } catch (FileNotFoundException e) {
-            // Ignore
         } catch (IOException | XmlPullParserException e) {
-            Log.e(TAG, "Unable to read items in " + mFileName, e);
+            Log.e(TAG, "Unable to read items in " + mLegacyFileName, e);
+            legacyFile.delete();
+            return Collections.emptyList();
+        }
+
+        // Persist the raw entries, so that entries which can not be resolved right now (e.g. for
+        // a user which is not available) are not lost by the migration.
+        int count = intents.size();
+        int[] typesColumn = new int[count];
+        long[] profilesColumn = new long[count];
+        byte[][] intentsColumn = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            typesColumn[i] = itemTypes.get(i);
+            profilesColumn[i] = profileIds.get(i);
+            intentsColumn[i] = intents.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] data = encode(count, typesColumn, profilesColumn, intentsColumn);
+        if (writeColumns(context, data)) {
+            legacyFile.delete();
+        }
+        // Otherwise the legacy file is kept, and the migration is tried again on the next read
+        try {
+            return decodeItems(ByteBuffer.wrap(data), factory, userFn);
+        } catch (IOException e) {
+            // Not expected for freshly encoded items
+            Log.e(TAG, "Unable to read migrated items", e);
             return Collections.emptyList();
         }
-        return result;
     }
 
     /**
@@ -170,6 +340,15 @@ public class PersistedItemArray<T extends ItemInfo> {
         return new AtomicFile(context.getFileStreamPath(mFileName));
     }
 
+    /**
+     * Deletes the persisted items, including any file in a previous format
+     */
+    @WorkerThread
+    public void delete(Context context) {
+        getFile(context).delete();
+        new AtomicFile(context.getFileStreamPath(mLegacyFileName)).delete();
+    }
+
     /**
      * Interface to create an ItemInfo during parsing
      */
@@ -181,4 +360,9 @@ public class PersistedItemArray<T extends ItemInfo> {
         @Nullable
         T createInfo(int itemType, UserHandle user, Intent intent);
     }
+
+    @VisibleForTesting
+    interface EntryVisitor {
+        void visit(int itemType, long profileId, String intentUri);
+    }
 }
@@ -18,20 +18,31 @@ package com.android.launcher3.util;
 
 import static android.provider.Settings.System.ACCELEROMETER_ROTATION;
 
+import static com.android.launcher3.util.Executors.UI_HELPER_EXECUTOR;
+
 import android.content.ContentResolver;
 import android.content.Context;
 import android.database.ContentObserver;
 import android.net.Uri;
 import android.os.Handler;
+import android.os.Looper;
 import android.provider.Settings;
+import android.util.Log;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.launcher3.Utilities;
 
+import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ContentObserver over Settings keys that also has a caching layer.
@@ -46,6 +57,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * {@link ContentObserver#onChange(boolean)} calls
  *
  * Cache will also be updated if a key queried is missing (even if it has no listeners registered).
+ * As this requires a binder call, keys which are read during startup should be loaded in the
+ * background beforehand using {@link #prefetch(Uri...)}.
  */
 public class SettingsCache extends ContentObserver implements SafeCloseable {
 
@@ -60,15 +73,28 @@ public class SettingsCache extends ContentObserver implements SafeCloseable {
     public static final Uri ROTATION_SETTING_URI =
             Settings.System.getUriFor(ACCELEROMETER_ROTATION);
 
+    /** Keys read during the startup of the launcher, see {@link #prefetch(Uri...)} */
+    public static final Uri[] STARTUP_KEYS = {NOTIFICATION_BADGING_URI, ROTATION_SETTING_URI};
+
+    private static final String TAG = "SettingsCache";
     private static final String SYSTEM_URI_PREFIX = Settings.System.CONTENT_URI.toString();
 
     /**
      * Caches the last seen value for registered keys.
      */
     private Map<Uri, Boolean> mKeyCache = new ConcurrentHashMap<>();
+    /**
+     * Prefetched keys which have no valid value, for which the default value is returned.
+     */
+    private final Set<Uri> mMissingKeys = ConcurrentHashMap.newKeySet();
     private final Map<Uri, CopyOnWriteArrayList<OnChangeListener>> mListenerMap = new HashMap<>();
     protected final ContentResolver mResolver;
 
+    private final AtomicInteger mHitCount = new AtomicInteger();
+    private final AtomicInteger mMissCount = new AtomicInteger();
+    private final AtomicInteger mMainThreadMissCount = new AtomicInteger();
+    private final AtomicInteger mPrefetchCount = new AtomicInteger();
+
     /**
      * Singleton instance
      */
@@ -112,10 +138,68 @@ public class SettingsCache extends ContentObserver implements SafeCloseable {
      * {@link #updateValue(Uri, int)} to fetch.
      */
     public boolean getValue(Uri keySetting, int defaultValue) {
-        if (mKeyCache.containsKey(keySetting)) {
-            return mKeyCache.get(keySetting);
-        } else {
-            return updateValue(keySetting, defaultValue);
+        Boolean value = mKeyCache.get(keySetting);
+        if (value != null) {
+            mHitCount.incrementAndGet();
+            return value;
+        } else if (mMissingKeys.contains(keySetting)) {
+            mHitCount.incrementAndGet();
+            return defaultValue == 1;
+        }
+
+        mMissCount.incrementAndGet();
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mMainThreadMissCount.incrementAndGet();
+            // Similar to a StrictMode disk read violation, the stack trace is only logged on
+            // debug builds to keep the logs short.
+            Log.w(TAG, "Reading " + keySetting + " on the main thread, consider prefetching it",
+                    Utilities.IS_DEBUG_DEVICE ? new Exception() : null);
+        }
+        return updateValue(keySetting, defaultValue);
+    }
+
+    /**
+     * Loads the values of the provided keys in a single background task, so that later calls to
+     * {@link #getValue} for these keys do not need to query the settings provider.
+     */
+    public void prefetch(Uri... keys) {
+        UI_HELPER_EXECUTOR.execute(() -> {
+            for (Uri key : keys) {
+                if (mKeyCache.containsKey(key) || mMissingKeys.contains(key)) {
+                    continue;
+                }
+                mPrefetchCount.incrementAndGet();
+                Integer value = readValue(key);
+                if (value == null) {
+                    mMissingKeys.add(key);
+                } else {
+                    // Do not override a value updated by onChange while it was being read
+                    mKeyCache.putIfAbsent(key, value == 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the value of the key in the settings provider, or null if it has no valid value.
+     */
+    @Nullable
+    @WorkerThread
+    private Integer readValue(Uri keyUri) {
+        String key = keyUri.getLastPathSegment();
+        String value;
+        if (keyUri.toString().startsWith(SYSTEM_URI_PREFIX)) {
+            value = Settings.System.getString(mResolver, key);
+        } else { // SETTING_SECURE
+            value = Settings.Secure.getString(mResolver, key);
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
@@ -164,6 +248,14 @@ public class SettingsCache extends ContentObserver implements SafeCloseable {
         }
     }
 
+    public void dump(String prefix, PrintWriter writer) {
+        writer.println(prefix + "SettingsCache:");
+        writer.println(prefix + "\thits=" + mHitCount.get()
+                + " misses=" + mMissCount.get()
+                + " mainThreadMisses=" + mMainThreadMissCount.get()
+                + " prefetched=" + mPrefetchCount.get());
+    }
+
     /**
      * Don't use this. Ever.
      * @param keyCache Cache to replace {@link #mKeyCache}
@@ -1,5 +1,6 @@
 package com.android.launcher3.util;
 
+import static com.android.launcher3.config.FeatureFlags.ENABLE_WALLPAPER_OFFSET_CACHING;
 import static com.android.launcher3.util.Executors.UI_HELPER_EXECUTOR;
 
 import android.app.WallpaperManager;
@@ -20,6 +21,7 @@ import androidx.annotation.AnyThread;
 import com.android.launcher3.Utilities;
 import com.android.launcher3.Workspace;
 import com.android.launcher3.anim.Interpolators;
+import com.android.launcher3.util.window.RefreshRateTracker;
 
 /**
  * Utility class to handle wallpaper scrolling along with workspace.
@@ -48,6 +50,15 @@ public class WallpaperOffsetInterpolator extends BroadcastReceiver implements
     private boolean mLockedToDefaultPage;
     private int mNumScreens;
 
+    // Page counts, invalidated when pages are added, removed or converted to extra empty pages
+    private int mCachedNumPages = -1;
+    private int mCachedPanelCount;
+
+    // Last offset sent to the handler, to drop the updates which don't change it
+    private int mLastOffsetNumerator = -1;
+    private int mLastOffsetDenominator = -1;
+    private IBinder mLastOffsetToken;
+
     private boolean mAllowScrolling;
 
     public WallpaperOffsetInterpolator(Workspace<?> workspace) {
@@ -168,6 +179,18 @@ public class WallpaperOffsetInterpolator extends BroadcastReceiver implements
      * page. To avoid janky motion effect, we ignore this empty CellLayout.
      */
     private int getNumPagesExcludingEmpty() {
+        if (!ENABLE_WALLPAPER_OFFSET_CACHING.get()) {
+            return computeNumPagesExcludingEmpty();
+        }
+        int panelCount = mWorkspace.getPanelCount();
+        if (mCachedNumPages < 0 || mCachedPanelCount != panelCount) {
+            mCachedNumPages = computeNumPagesExcludingEmpty();
+            mCachedPanelCount = panelCount;
+        }
+        return mCachedNumPages;
+    }
+
+    private int computeNumPagesExcludingEmpty() {
         int numOfPages = mWorkspace.getChildCount();
         if (numOfPages >= MIN_PARALLAX_PAGE_SPAN && mWorkspace.hasExtraEmptyScreens()) {
             return numOfPages - mWorkspace.getPanelCount();
@@ -176,6 +199,14 @@ public class WallpaperOffsetInterpolator extends BroadcastReceiver implements
         }
     }
 
+    /**
+     * Invalidates the page counts used to compute the wallpaper offset, should be called whenever
+     * pages are added or removed, or become or stop being extra empty pages.
+     */
+    public void invalidatePageCounts() {
+        mCachedNumPages = -1;
+    }
+
     public void syncWithScroll() {
         int numScreens = getNumScrollableScreensExcludingEmpty();
         wallpaperOffsetForScroll(mWorkspace.getScrollX(), numScreens, sTempInt);
@@ -185,10 +216,24 @@ public class WallpaperOffsetInterpolator extends BroadcastReceiver implements
             if (mNumScreens > 0) {
                 // Don't animate if we're going from 0 screens
                 msg.what = MSG_START_ANIMATION;
+                ((OffsetHandler) mHandler).mSingleFrameMs =
+                        RefreshRateTracker.getSingleFrameMs(mWorkspace.getContext());
             }
             mNumScreens = numScreens;
             updateOffset();
+        } else if (ENABLE_WALLPAPER_OFFSET_CACHING.get()) {
+            // This is called on every frame drawn by the workspace, even when it doesn't scroll
+            if (sTempInt[0] == mLastOffsetNumerator && sTempInt[1] == mLastOffsetDenominator
+                    && mWindowToken == mLastOffsetToken) {
+                msg.recycle();
+                return;
+            }
+            // Only the latest offset matters, drop the updates which were not handled yet
+            mHandler.removeMessages(MSG_UPDATE_OFFSET);
         }
+        mLastOffsetNumerator = sTempInt[0];
+        mLastOffsetDenominator = sTempInt[1];
+        mLastOffsetToken = mWindowToken;
         msg.sendToTarget();
     }
 
@@ -253,6 +298,10 @@ public class WallpaperOffsetInterpolator extends BroadcastReceiver implements
         private float mFinalOffset;
         private float mOffsetX;
 
+        // Interval between the offset updates of an animation, set on the main thread
+        private volatile int mSingleFrameMs = 16;
+        private long mLastOffsetUpdateTime;
+
         public OffsetHandler(Context context) {
             super(UI_HELPER_EXECUTOR.getLooper());
             mInterpolator = Interpolators.DEACCEL_1_5;
@@ -292,13 +341,26 @@ public class WallpaperOffsetInterpolator extends BroadcastReceiver implements
 
                     if (Float.compare(mCurrentOffset, oldOffset) != 0) {
                         setOffsetSafely(token);
-                        // Force the wallpaper offset steps to be set again, because another app
-                        // might have changed them
-                        mWM.setWallpaperOffsetSteps(mOffsetX, 1.0f);
+                        long now = SystemClock.uptimeMillis();
+                        if (!ENABLE_WALLPAPER_OFFSET_CACHING.get()
+                                || now - mLastOffsetUpdateTime > ANIMATION_DURATION) {
+                            // Force the wallpaper offset steps to be set again, because another
+                            // app might have changed them. Once per scroll is enough, as no
+                            // other app can be visible while the workspace scrolls.
+                            mWM.setWallpaperOffsetSteps(mOffsetX, 1.0f);
+                        }
+                        mLastOffsetUpdateTime = now;
                     }
                     if (mAnimating) {
                         // If we are animating, keep updating the offset
-                        Message.obtain(this, MSG_APPLY_OFFSET, token).sendToTarget();
+                        Message next = Message.obtain(this, MSG_APPLY_OFFSET, token);
+                        if (ENABLE_WALLPAPER_OFFSET_CACHING.get()) {
+                            // Keep a single pending update, once per frame
+                            removeMessages(MSG_APPLY_OFFSET);
+                            sendMessageDelayed(next, mSingleFrameMs);
+                        } else {
+                            next.sendToTarget();
+                        }
                     }
                     return;
                 }
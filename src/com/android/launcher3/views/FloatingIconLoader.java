@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.views;
+
+import static com.android.launcher3.util.Executors.createAndStartNewLooper;
+
+import android.graphics.drawable.Drawable;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.android.launcher3.LauncherSettings.Favorites;
+import com.android.launcher3.icons.BitmapInfo;
+import com.android.launcher3.model.data.ItemInfo;
+import com.android.launcher3.model.data.ItemInfoWithIcon;
+import com.android.launcher3.shortcuts.ShortcutKey;
+import com.android.launcher3.util.ComponentKey;
+import com.android.launcher3.util.LooperExecutor;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Loads the icons of the {@link FloatingIconView} used by the app launch and return animations.
+ *
+ * The icons are loaded on a dedicated high priority thread, so that they are not delayed by
+ * long running model tasks, and the full resolution icons of the recently launched items are
+ * kept in memory. The time from the fetch request until the icon is ready is recorded in a
+ * histogram.
+ */
+public class FloatingIconLoader {
+
+    public static final FloatingIconLoader INSTANCE = new FloatingIconLoader();
+
+    private static final int MAX_CACHED_ICONS = 6;
+    // Upper bounds of the latency histogram buckets, the last bucket has no upper bound
+    private static final int[] LATENCY_BUCKETS_MS = {4, 8, 16, 32, 64, 128};
+
+    private final LooperExecutor mExecutor = new LooperExecutor(
+            createAndStartNewLooper("launcher-icon-fetch", Process.THREAD_PRIORITY_DISPLAY));
+
+    private final LruCache<ComponentKey, CachedIcon> mCache = new LruCache<>(MAX_CACHED_ICONS);
+    private final AtomicIntegerArray mLatencyHistogram =
+            new AtomicIntegerArray(LATENCY_BUCKETS_MS.length + 1);
+
+    private FloatingIconLoader() { }
+
+    /**
+     * Runs the provided icon load on the icon thread.
+     */
+    public void execute(Runnable load) {
+        mExecutor.execute(load);
+    }
+
+    /**
+     * Returns the icon previously loaded for the item with the same parameters, or null if there
+     * is none or if the icon of the item has changed since.
+     */
+    @WorkerThread
+    @Nullable
+    CachedIcon getCachedIcon(ItemInfo info, int width, int height, boolean themed) {
+        ComponentKey key = getCacheKey(info);
+        if (key == null) {
+            return null;
+        }
+        CachedIcon icon = mCache.get(key);
+        return icon != null && icon.matches((ItemInfoWithIcon) info, width, height, themed)
+                ? icon : null;
+    }
+
+    /**
+     * Returns true if the icon of the provided item can be cached.
+     */
+    boolean canCache(ItemInfo info) {
+        return getCacheKey(info) != null;
+    }
+
+    /**
+     * Keeps the full resolution icon loaded for the provided item, and returns the cached icon or
+     * null if it could not be cached.
+     */
+    @WorkerThread
+    @Nullable
+    CachedIcon putCachedIcon(ItemInfo info, int width, int height, boolean themed,
+            Drawable drawable, @Nullable Drawable badge, int iconOffset) {
+        ComponentKey key = getCacheKey(info);
+        if (key == null || drawable.getConstantState() == null
+                || (badge != null && badge.getConstantState() == null)) {
+            return null;
+        }
+        CachedIcon icon = new CachedIcon(((ItemInfoWithIcon) info).bitmap, width, height, themed,
+                drawable, badge, iconOffset);
+        mCache.put(key, icon);
+        return icon;
+    }
+
+    @Nullable
+    private static ComponentKey getCacheKey(ItemInfo info) {
+        if (!(info instanceof ItemInfoWithIcon)) {
+            return null;
+        }
+        if (info.itemType == Favorites.ITEM_TYPE_APPLICATION) {
+            return info.getTargetComponent() == null
+                    ? null : new ComponentKey(info.getTargetComponent(), info.user);
+        } else if (info.itemType == Favorites.ITEM_TYPE_DEEP_SHORTCUT) {
+            return info.getIntent() == null ? null : ShortcutKey.fromItemInfo(info);
+        }
+        return null;
+    }
+
+    /**
+     * Records the latency of an icon fetch started at {@param fetchStartTime}, in
+     * {@link SystemClock#uptimeMillis()} time base.
+     */
+    void onIconReady(long fetchStartTime) {
+        long latency = SystemClock.uptimeMillis() - fetchStartTime;
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MS.length && latency > LATENCY_BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        mLatencyHistogram.incrementAndGet(bucket);
+    }
+
+    public void dump(String prefix, PrintWriter writer) {
+        writer.println(prefix + "FloatingIconLoader: cachedIcons=" + mCache.size()
+                + " hits=" + mCache.hitCount() + " misses=" + mCache.missCount());
+        StringBuilder histogram = new StringBuilder(prefix).append("\tfetch latency:");
+        for (int i = 0; i < mLatencyHistogram.length(); i++) {
+            histogram.append(i < LATENCY_BUCKETS_MS.length
+                    ? " <=" + LATENCY_BUCKETS_MS[i] + "ms="
+                    : " >" + LATENCY_BUCKETS_MS[i - 1] + "ms=")
+                    .append(mLatencyHistogram.get(i));
+        }
+        writer.println(histogram);
+    }
+
+    /**
+     * A full resolution icon loaded for an item, which is valid as long as the item keeps the same
+     * icon.
+     */
+    static class CachedIcon {
+
+        private final BitmapInfo mBitmap;
+        private final int mWidth;
+        private final int mHeight;
+        private final boolean mThemed;
+        private final Drawable mDrawable;
+        @Nullable private final Drawable mBadge;
+        final int iconOffset;
+
+        CachedIcon(BitmapInfo bitmap, int width, int height, boolean themed, Drawable drawable,
+                @Nullable Drawable badge, int iconOffset) {
+            mBitmap = bitmap;
+            mWidth = width;
+            mHeight = height;
+            mThemed = themed;
+            // Keep private copies, so that the drawables handed out can be changed freely
+            mDrawable = drawable.getConstantState().newDrawable().mutate();
+            mBadge = badge == null ? null : badge.getConstantState().newDrawable().mutate();
+            this.iconOffset = iconOffset;
+        }
+
+        boolean matches(ItemInfoWithIcon info, int width, int height, boolean themed) {
+            // The model creates a new BitmapInfo whenever the icon of an item changes
+            return info.bitmap == mBitmap && mWidth == width && mHeight == height
+                    && mThemed == themed;
+        }
+
+        Drawable newDrawable() {
+            return mDrawable.getConstantState().newDrawable().mutate();
+        }
+
+        @Nullable
+        Drawable newBadge() {
+            return mBadge == null ? null : mBadge.getConstantState().newDrawable().mutate();
+        }
+    }
+}
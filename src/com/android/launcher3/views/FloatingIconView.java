@@ -17,7 +17,6 @@ package com.android.launcher3.views;
 
 import static com.android.launcher3.Utilities.getBadge;
 import static com.android.launcher3.Utilities.getFullDrawable;
-import static com.android.launcher3.util.Executors.MODEL_EXECUTOR;
 import static com.android.launcher3.views.IconLabelDotView.setIconAndDotVisible;
 
 import android.animation.Animator;
@@ -30,6 +29,7 @@ import android.graphics.drawable.AdaptiveIconDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.CancellationSignal;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.View;
@@ -57,6 +57,7 @@ import com.android.launcher3.model.data.ItemInfo;
 import com.android.launcher3.model.data.ItemInfoWithIcon;
 import com.android.launcher3.popup.SystemShortcut;
 import com.android.launcher3.shortcuts.DeepShortcutView;
+import com.android.launcher3.views.FloatingIconLoader.CachedIcon;
 
 import java.util.function.Supplier;
 
@@ -255,10 +256,11 @@ public class FloatingIconView extends FrameLayout implements
     @SuppressWarnings("WrongThread")
     private static void getIconResult(Launcher l, View originalView, ItemInfo info, RectF pos,
             @Nullable Drawable btvIcon, IconLoadResult outIconLoadResult) {
-        Drawable drawable;
+        Drawable drawable = null;
         boolean supportsAdaptiveIcons = !info.isDisabled(); // Use original icon for disabled icons.
 
         Drawable badge = null;
+        CachedIcon cachedIcon = null;
         if (info instanceof SystemShortcut) {
             if (originalView instanceof ImageView) {
                 drawable = ((ImageView) originalView).getDrawable();
@@ -276,13 +278,23 @@ public class FloatingIconView extends FrameLayout implements
             if (supportsAdaptiveIcons) {
                 boolean shouldThemeIcon = btvIcon instanceof FastBitmapDrawable
                         && ((FastBitmapDrawable) btvIcon).isThemed();
-                drawable = getFullDrawable(l, info, width, height, shouldThemeIcon, sTmpObjArray);
-                if (drawable instanceof AdaptiveIconDrawable) {
-                    badge = getBadge(l, info, sTmpObjArray[0]);
-                } else {
-                    // The drawable we get back is not an adaptive icon, so we need to use the
-                    // BubbleTextView icon that is already legacy treated.
-                    drawable = btvIcon;
+                FloatingIconLoader loader = FloatingIconLoader.INSTANCE;
+                cachedIcon = loader.getCachedIcon(info, width, height, shouldThemeIcon);
+                if (cachedIcon == null) {
+                    drawable = getFullDrawable(l, info, width, height, shouldThemeIcon,
+                            sTmpObjArray);
+                    if (drawable instanceof AdaptiveIconDrawable) {
+                        badge = getBadge(l, info, sTmpObjArray[0]);
+                        if (loader.canCache(info)) {
+                            cachedIcon = loader.putCachedIcon(info, width, height,
+                                    shouldThemeIcon, drawable, badge,
+                                    getOffsetForIconBounds(l, drawable, pos));
+                        }
+                    } else {
+                        // The drawable we get back is not an adaptive icon, so we need to use the
+                        // BubbleTextView icon that is already legacy treated.
+                        drawable = btvIcon;
+                    }
                 }
             } else {
                 if (originalView instanceof BubbleTextView) {
@@ -295,8 +307,15 @@ public class FloatingIconView extends FrameLayout implements
             }
         }
 
-        drawable = drawable == null ? null : drawable.getConstantState().newDrawable();
-        int iconOffset = getOffsetForIconBounds(l, drawable, pos);
+        int iconOffset;
+        if (cachedIcon != null) {
+            drawable = cachedIcon.newDrawable();
+            badge = cachedIcon.newBadge();
+            iconOffset = cachedIcon.iconOffset;
+        } else {
+            drawable = drawable == null ? null : drawable.getConstantState().newDrawable();
+            iconOffset = getOffsetForIconBounds(l, drawable, pos);
+        }
         // Clone right away as we are on the background thread instead of blocking the
         // main thread later
         Drawable btvClone = btvIcon == null ? null : btvIcon.getConstantState().newDrawable();
@@ -311,6 +330,7 @@ public class FloatingIconView extends FrameLayout implements
             }
             outIconLoadResult.isIconLoaded = true;
         }
+        FloatingIconLoader.INSTANCE.onIconReady(outIconLoadResult.fetchStartTime);
     }
 
     /**
@@ -544,7 +564,7 @@ public class FloatingIconView extends FrameLayout implements
         result.btvDrawable = btvDrawableSupplier;
 
         final long fetchIconId = sFetchIconId++;
-        MODEL_EXECUTOR.getHandler().postAtFrontOfQueue(() -> {
+        FloatingIconLoader.INSTANCE.execute(() -> {
             if (fetchIconId < sRecycledFetchIconId) {
                 return;
             }
@@ -662,6 +682,7 @@ public class FloatingIconView extends FrameLayout implements
         int iconOffset;
         Runnable onIconLoaded;
         boolean isIconLoaded;
+        final long fetchStartTime = SystemClock.uptimeMillis();
 
         IconLoadResult(ItemInfo itemInfo, boolean isThemed) {
             this.itemInfo = itemInfo;
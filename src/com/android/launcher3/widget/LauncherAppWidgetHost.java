@@ -25,23 +25,30 @@ import android.appwidget.AppWidgetProviderInfo;
 import android.content.ActivityNotFoundException;
 import android.content.Context;
 import android.content.Intent;
+import android.content.res.Configuration;
 import android.os.Bundle;
 import android.os.Handler;
+import android.util.Size;
 import android.util.SparseArray;
+import android.view.ViewGroup;
 import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 
 import com.android.launcher3.BaseActivity;
 import com.android.launcher3.BaseDraggingActivity;
+import com.android.launcher3.Launcher;
 import com.android.launcher3.LauncherAppState;
 import com.android.launcher3.R;
 import com.android.launcher3.Utilities;
+import com.android.launcher3.config.FeatureFlags;
 import com.android.launcher3.model.WidgetsModel;
 import com.android.launcher3.model.data.ItemInfo;
+import com.android.launcher3.model.data.LauncherAppWidgetInfo;
 import com.android.launcher3.testing.TestLogging;
 import com.android.launcher3.testing.TestProtocol;
 import com.android.launcher3.widget.custom.CustomWidgetManager;
+import com.android.launcher3.widget.util.WidgetSizes;
 
 import java.util.ArrayList;
 import java.util.function.IntConsumer;
@@ -71,6 +78,11 @@ public class LauncherAppWidgetHost extends AppWidgetHost {
     private final SparseArray<LauncherAppWidgetHostView> mViews = new SparseArray<>();
     private final SparseArray<PendingAppWidgetHostView> mPendingViews = new SparseArray<>();
 
+    // Views of the previous workspace bind, which can be reused until the current bind finishes
+    private final SparseArray<RecycledView> mRecycledViews = new SparseArray<>();
+    @Nullable private Configuration mRecycledViewsConfig;
+    @Nullable private LauncherAppWidgetHostView mReusedView;
+
     private final Context mContext;
     private int mFlags = FLAG_STATE_IS_NORMAL;
 
@@ -95,6 +107,9 @@ public class LauncherAppWidgetHost extends AppWidgetHost {
         if (mPendingViews.get(appWidgetId) != null) {
             view = mPendingViews.get(appWidgetId);
             mPendingViews.remove(appWidgetId);
+        } else if (mReusedView != null && mReusedView.getAppWidgetId() == appWidgetId) {
+            view = mReusedView;
+            mReusedView = null;
         } else {
             view = new LauncherAppWidgetHostView(context);
         }
@@ -247,6 +262,38 @@ public class LauncherAppWidgetHost extends AppWidgetHost {
         }
     }
 
+    /**
+     * Creates the view of a widget bound to the workspace, reusing the view of the same widget
+     * from the previous bind if the widget size and the configuration have not changed.
+     */
+    public AppWidgetHostView createView(Context context, LauncherAppWidgetInfo item,
+            LauncherAppWidgetProviderInfo appWidget) {
+        RecycledView recycledView = mRecycledViews.get(item.appWidgetId);
+        if (recycledView != null) {
+            mRecycledViews.remove(item.appWidgetId);
+            // The view is only created by onCreateView when the host is listening
+            if ((mFlags & FLAG_LISTENING) != 0
+                    && recycledView.isCompatible(context, item, appWidget)) {
+                mReusedView = recycledView.view;
+            }
+        }
+        try {
+            // The remote views are applied again to the reused view, which keeps its hierarchy
+            // when the widget layout is the same
+            return createView(context, item.appWidgetId, appWidget);
+        } finally {
+            mReusedView = null;
+        }
+    }
+
+    /**
+     * Drops the views of the previous workspace bind which were not reused.
+     */
+    public void clearRecycledViews() {
+        mRecycledViews.clear();
+        mRecycledViewsConfig = null;
+    }
+
     /**
      * Called when the AppWidget provider for a AppWidget has been upgraded to a new apk.
      */
@@ -275,12 +322,31 @@ public class LauncherAppWidgetHost extends AppWidgetHost {
     @Override
     public void deleteAppWidgetId(int appWidgetId) {
         super.deleteAppWidgetId(appWidgetId);
-        mViews.remove(appWidgetId);
+        LauncherAppWidgetHostView view = mViews.get(appWidgetId);
+        if (view != null) {
+            WidgetInflationQueue.INSTANCE.cancel(view);
+            mViews.remove(appWidgetId);
+        }
+        mRecycledViews.remove(appWidgetId);
     }
 
     @Override
     public void clearViews() {
         super.clearViews();
+        clearRecycledViews();
+        boolean recycleViews = FeatureFlags.ENABLE_WIDGET_VIEW_RECYCLING.get();
+        for (int i = mViews.size() - 1; i >= 0; i--) {
+            LauncherAppWidgetHostView view = mViews.valueAt(i);
+            WidgetInflationQueue.INSTANCE.cancel(view);
+            // Deferred and pending views are replaced once the widget is ready anyway
+            if (recycleViews && view.getClass() == LauncherAppWidgetHostView.class
+                    && view.getWidth() > 0 && view.getHeight() > 0) {
+                mRecycledViews.put(mViews.keyAt(i), new RecycledView(view));
+            }
+        }
+        if (mRecycledViews.size() > 0) {
+            mRecycledViewsConfig = new Configuration(mContext.getResources().getConfiguration());
+        }
         mViews.clear();
     }
 
@@ -342,6 +408,46 @@ public class LauncherAppWidgetHost extends AppWidgetHost {
         new Handler().post(() -> activity.onActivityResult(requestCode, RESULT_CANCELED, null));
     }
 
+    /**
+     * A widget view detached from the previous workspace bind, with the size it had.
+     */
+    private class RecycledView {
+
+        final LauncherAppWidgetHostView view;
+        private final int mWidth;
+        private final int mHeight;
+
+        RecycledView(LauncherAppWidgetHostView view) {
+            this.view = view;
+            mWidth = view.getWidth();
+            mHeight = view.getHeight();
+            if (view.getParent() instanceof ViewGroup) {
+                ((ViewGroup) view.getParent()).removeView(view);
+            }
+            view.setReorderBounceOffset(0, 0);
+            view.setReorderPreviewOffset(0, 0);
+            view.setReorderBounceScale(1f);
+        }
+
+        boolean isCompatible(Context context, LauncherAppWidgetInfo item,
+                LauncherAppWidgetProviderInfo appWidget) {
+            AppWidgetProviderInfo info = view.getAppWidgetInfo();
+            if (view.getContext() != context || info == null
+                    || !info.provider.equals(appWidget.provider)
+                    || !info.getProfile().equals(appWidget.getProfile())) {
+                return false;
+            }
+            // The views inflated from the remote views depend on the resources configuration
+            if (mRecycledViewsConfig == null
+                    || mRecycledViewsConfig.diff(context.getResources().getConfiguration()) != 0) {
+                return false;
+            }
+            Size size = WidgetSizes.getWidgetSizePx(
+                    Launcher.getLauncher(context).getDeviceProfile(), item.spanX, item.spanY);
+            return size.getWidth() == mWidth && size.getHeight() == mHeight;
+        }
+    }
+
     /**
      * Listener for getting notifications on provider changes.
      */
@@ -41,8 +41,11 @@ import androidx.annotation.Nullable;
 
 import com.android.launcher3.CheckLongPressHelper;
 import com.android.launcher3.Launcher;
+import com.android.launcher3.LauncherSettings;
 import com.android.launcher3.R;
 import com.android.launcher3.Utilities;
+import com.android.launcher3.Workspace;
+import com.android.launcher3.config.FeatureFlags;
 import com.android.launcher3.dragndrop.DragLayer;
 import com.android.launcher3.model.data.ItemInfo;
 import com.android.launcher3.model.data.LauncherAppWidgetInfo;
@@ -104,6 +107,9 @@ public class LauncherAppWidgetHostView extends BaseLauncherAppWidgetHostView
         mLongPressHelper = new CheckLongPressHelper(this, this);
         setAccessibilityDelegate(mLauncher.getAccessibilityDelegate());
         setBackgroundResource(R.drawable.widget_internal_focus_bg);
+        if (FeatureFlags.ENABLE_PRIORITIZED_WIDGET_INFLATION.get()) {
+            setExecutor(WidgetInflationQueue.INSTANCE.newExecutor(this));
+        }
 
         if (Utilities.ATLEAST_Q && Themes.getAttrBoolean(mLauncher, R.attr.isWorkspaceDarkText)) {
             setOnLightBackground(true);
@@ -169,6 +175,32 @@ public class LauncherAppWidgetHostView extends BaseLauncherAppWidgetHostView
         mReinflateOnConfigChange = !isSameOrientation();
     }
 
+    /**
+     * Returns the priority of the asynchronous inflation of this widget, lower values being
+     * inflated first: the number of pages between this widget and the visible pages.
+     * @see WidgetInflationQueue
+     */
+    public int getInflationPriority() {
+        if (!(getTag() instanceof ItemInfo)) {
+            return Integer.MAX_VALUE;
+        }
+        ItemInfo info = (ItemInfo) getTag();
+        if (info.container != LauncherSettings.Favorites.CONTAINER_DESKTOP) {
+            return Integer.MAX_VALUE;
+        }
+        Workspace<?> workspace = mLauncher.getWorkspace();
+        int pageIndex = workspace.getPageIndexForScreenId(info.screenId);
+        if (pageIndex < 0) {
+            return Integer.MAX_VALUE;
+        }
+        int firstVisiblePage = workspace.getNextPage();
+        int lastVisiblePage = firstVisiblePage + workspace.getPanelCount() - 1;
+        if (pageIndex < firstVisiblePage) {
+            return firstVisiblePage - pageIndex;
+        }
+        return Math.max(0, pageIndex - lastVisiblePage);
+    }
+
     private boolean isSameOrientation() {
         return mLauncher.getResources().getConfiguration().orientation ==
                 mLauncher.getOrientation();
@@ -458,6 +490,7 @@ public class LauncherAppWidgetHostView extends BaseLauncherAppWidgetHostView
         }
         // Remove and rebind the current widget (which was inflated in the wrong
         // orientation), but don't delete it from the database
+        WidgetInflationQueue.INSTANCE.cancel(this);
         mLauncher.removeItem(this, info, false  /* deleteFromDb */,
                 "widget removed because of configuration change");
         mLauncher.bindAppWidget(info);
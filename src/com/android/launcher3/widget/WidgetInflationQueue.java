@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.widget;
+
+import static com.android.launcher3.util.Executors.MAIN_EXECUTOR;
+import static com.android.launcher3.util.Executors.THREAD_POOL_EXECUTOR;
+
+import android.widget.RemoteViews;
+
+import androidx.annotation.UiThread;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the background part of asynchronous widget inflation ({@link RemoteViews#applyAsync})
+ * with a bounded number of concurrent inflations.
+ *
+ * Pending inflations are started in order of
+ * {@link LauncherAppWidgetHostView#getInflationPriority()}, evaluated when a slot becomes
+ * available, so that the widgets on the visible pages are inflated before the others even if they
+ * were bound later. Inflations which were superseded by a newer update or cancelled are dropped
+ * without being run.
+ *
+ * All the state is only accessed on the UI thread.
+ */
+public class WidgetInflationQueue {
+
+    public static final WidgetInflationQueue INSTANCE = new WidgetInflationQueue();
+
+    private static final int MAX_CONCURRENT_INFLATIONS = 2;
+
+    private final ArrayList<InflationTask> mPending = new ArrayList<>();
+    private final Runnable mStartPendingRunnable = this::startPending;
+    private final Runnable mOnInflationCompleteRunnable = this::onInflationComplete;
+
+    private int mRunningCount = 0;
+    private boolean mStartScheduled;
+
+    private WidgetInflationQueue() { }
+
+    /**
+     * Returns an executor to be used by the provided view for asynchronous inflation.
+     * @see LauncherAppWidgetHostView#setExecutor
+     */
+    public Executor newExecutor(LauncherAppWidgetHostView view) {
+        return r -> enqueue(view, r);
+    }
+
+    @UiThread
+    private void enqueue(LauncherAppWidgetHostView view, Runnable inflation) {
+        mPending.add(new InflationTask(view, inflation));
+        // Wait for the current bind pass to complete, so that the priority is computed after the
+        // view has been added to the workspace.
+        scheduleStartPending();
+    }
+
+    /**
+     * Cancels all the pending inflations of the provided view.
+     */
+    @UiThread
+    public void cancel(LauncherAppWidgetHostView view) {
+        mPending.removeIf(task -> {
+            if (task.view != view) {
+                return false;
+            }
+            task.cancel();
+            return true;
+        });
+    }
+
+    private void scheduleStartPending() {
+        if (!mStartScheduled && mRunningCount < MAX_CONCURRENT_INFLATIONS) {
+            mStartScheduled = true;
+            MAIN_EXECUTOR.post(mStartPendingRunnable);
+        }
+    }
+
+    @UiThread
+    private void startPending() {
+        mStartScheduled = false;
+        mPending.removeIf(InflationTask::isCancelled);
+        while (mRunningCount < MAX_CONCURRENT_INFLATIONS && !mPending.isEmpty()) {
+            int bestIndex = 0;
+            int bestPriority = Integer.MAX_VALUE;
+            for (int i = 0; i < mPending.size(); i++) {
+                // Strictly lower, so that tasks of the same priority are run in order
+                int priority = mPending.get(i).view.getInflationPriority();
+                if (priority < bestPriority) {
+                    bestIndex = i;
+                    bestPriority = priority;
+                }
+            }
+            InflationTask task = mPending.remove(bestIndex);
+            mRunningCount++;
+            THREAD_POOL_EXECUTOR.execute(() -> {
+                try {
+                    task.inflation.run();
+                } finally {
+                    MAIN_EXECUTOR.execute(mOnInflationCompleteRunnable);
+                }
+            });
+        }
+    }
+
+    @UiThread
+    private void onInflationComplete() {
+        mRunningCount--;
+        if (!mPending.isEmpty()) {
+            scheduleStartPending();
+        }
+    }
+
+    private static class InflationTask {
+
+        final LauncherAppWidgetHostView view;
+        final Runnable inflation;
+
+        InflationTask(LauncherAppWidgetHostView view, Runnable inflation) {
+            this.view = view;
+            this.inflation = inflation;
+        }
+
+        boolean isCancelled() {
+            // RemoteViews cancels the underlying future when the inflation is superseded
+            return inflation instanceof Future && ((Future<?>) inflation).isCancelled();
+        }
+
+        void cancel() {
+            if (inflation instanceof Future) {
+                ((Future<?>) inflation).cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.launcher3.widget.model;
+
+import android.os.Process;
+
+import com.android.launcher3.util.LabelComparator;
+
+import java.util.Comparator;
+
+/** Comparator for sorting WidgetListRowEntry based on package title. */
+public class WidgetListBaseRowEntryComparator implements Comparator<WidgetsListBaseEntry> {
+
+    private final LabelComparator mComparator = new LabelComparator();
+
+    @Override
+    public int compare(WidgetsListBaseEntry a, WidgetsListBaseEntry b) {
+        int i = mComparator.compare(mComparator.getTitleSortKey(a.mPkgItem),
+                mComparator.getTitleSortKey(b.mPkgItem));
+        if (i != 0) {
+            return i;
+        }
+        // Prioritize entries from current user over other users if the entries are same.
+        if (a.mPkgItem.user.equals(b.mPkgItem.user)) return 0;
+        if (a.mPkgItem.user.equals(Process.myUserHandle())) return -1;
+        return 1;
+    }
+}
@@ -18,15 +18,18 @@ package com.android.launcher3.widget.picker;
 
 import android.util.Log;
 
+import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.launcher3.icons.IconCache;
 import com.android.launcher3.model.data.PackageItemInfo;
+import com.android.launcher3.util.IntArray;
+import com.android.launcher3.widget.model.WidgetListBaseRowEntryComparator;
 import com.android.launcher3.widget.model.WidgetsListBaseEntry;
 import com.android.launcher3.widget.model.WidgetsListContentEntry;
 import com.android.launcher3.widget.model.WidgetsListHeaderEntry;
 import com.android.launcher3.widget.model.WidgetsListSearchHeaderEntry;
-import com.android.launcher3.widget.picker.WidgetsListAdapter.WidgetListBaseRowEntryComparator;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -40,6 +43,11 @@ public class WidgetsDiffReporter {
     private static final boolean DEBUG = false;
     private static final String TAG = "WidgetsDiffReporter";
 
+    private static final int UPDATE_DATA_SET_CHANGED = 0;
+    private static final int UPDATE_ITEM_REMOVED = 1;
+    private static final int UPDATE_ITEM_INSERTED = 2;
+    private static final int UPDATE_ITEM_CHANGED = 3;
+
     private final IconCache mIconCache;
     private final RecyclerView.Adapter mListener;
 
@@ -55,6 +63,27 @@ public class WidgetsDiffReporter {
     public void process(ArrayList<WidgetsListBaseEntry> currentEntries,
             List<WidgetsListBaseEntry> newEntries,
             WidgetListBaseRowEntryComparator comparator) {
+        process(currentEntries, newEntries, comparator, this::dispatchUpdate);
+    }
+
+    /**
+     * Computes the difference between {@code currentEntries} & {@code newEntries} without
+     * notifying the adapter, so that it can be done in the background. {@code currentEntries} is
+     * updated to match {@code newEntries} and the returned updates must be dispatched, on the UI
+     * thread, when the adapter starts using it.
+     */
+    @WorkerThread
+    public PendingUpdates computeUpdates(ArrayList<WidgetsListBaseEntry> currentEntries,
+            List<WidgetsListBaseEntry> newEntries,
+            WidgetListBaseRowEntryComparator comparator) {
+        PendingUpdates updates = new PendingUpdates();
+        process(currentEntries, newEntries, comparator, updates);
+        return updates;
+    }
+
+    private void process(ArrayList<WidgetsListBaseEntry> currentEntries,
+            List<WidgetsListBaseEntry> newEntries,
+            WidgetListBaseRowEntryComparator comparator, UpdateCallback callback) {
         if (DEBUG) {
             Log.d(TAG, "process oldEntries#=" + currentEntries.size()
                     + " newEntries#=" + newEntries.size());
@@ -68,7 +97,7 @@ public class WidgetsDiffReporter {
             if (currentEntries.size() != newEntries.size()) {
                 currentEntries.clear();
                 currentEntries.addAll(newEntries);
-                mListener.notifyDataSetChanged();
+                callback.onUpdate(UPDATE_DATA_SET_CHANGED, 0);
             }
             return;
         }
@@ -79,6 +108,8 @@ public class WidgetsDiffReporter {
 
         WidgetsListBaseEntry orgRowEntry = orgIter.next();
         WidgetsListBaseEntry newRowEntry = newIter.next();
+        // Position of orgRowEntry in currentEntries, or its size once all entries are processed
+        int index = 0;
 
         do {
             int diff = compareAppNameAndType(orgRowEntry, newRowEntry, comparator);
@@ -87,10 +118,8 @@ public class WidgetsDiffReporter {
                         diff, orgRowEntry != null ? orgRowEntry.toString() : null,
                         newRowEntry != null ? newRowEntry.toString() : null));
             }
-            int index = -1;
             if (diff < 0) {
-                index = currentEntries.indexOf(orgRowEntry);
-                mListener.notifyItemRemoved(index);
+                callback.onUpdate(UPDATE_ITEM_REMOVED, index);
                 if (DEBUG) {
                     Log.d(TAG, String.format("notifyItemRemoved called (%d)%s", index,
                             orgRowEntry.mTitleSectionName));
@@ -98,16 +127,14 @@ public class WidgetsDiffReporter {
                 currentEntries.remove(index);
                 orgRowEntry = orgIter.hasNext() ? orgIter.next() : null;
             } else if (diff > 0) {
-                index = orgRowEntry != null ? currentEntries.indexOf(orgRowEntry)
-                        : currentEntries.size();
                 currentEntries.add(index, newRowEntry);
                 if (DEBUG) {
                     Log.d(TAG, String.format("notifyItemInserted called (%d)%s", index,
                             newRowEntry.mTitleSectionName));
                 }
                 newRowEntry = newIter.hasNext() ? newIter.next() : null;
-                mListener.notifyItemInserted(index);
-
+                callback.onUpdate(UPDATE_ITEM_INSERTED, index);
+                index++;
             } else {
                 // same app name & type but,
                 // did the icon, title, etc, change?
@@ -116,9 +143,8 @@ public class WidgetsDiffReporter {
                 if (!isSamePackageItemInfo(orgRowEntry.mPkgItem, newRowEntry.mPkgItem)
                         || hasHeaderUpdated(orgRowEntry, newRowEntry)
                         || hasWidgetsListContentChanged(orgRowEntry, newRowEntry)) {
-                    index = currentEntries.indexOf(orgRowEntry);
                     currentEntries.set(index, newRowEntry);
-                    mListener.notifyItemChanged(index);
+                    callback.onUpdate(UPDATE_ITEM_CHANGED, index);
                     if (DEBUG) {
                         Log.d(TAG, String.format("notifyItemChanged called (%d)%s", index,
                                 newRowEntry.mTitleSectionName));
@@ -126,10 +152,28 @@ public class WidgetsDiffReporter {
                 }
                 orgRowEntry = orgIter.hasNext() ? orgIter.next() : null;
                 newRowEntry = newIter.hasNext() ? newIter.next() : null;
+                index++;
             }
         } while(orgRowEntry != null || newRowEntry != null);
     }
 
+    private void dispatchUpdate(int type, int index) {
+        switch (type) {
+            case UPDATE_DATA_SET_CHANGED:
+                mListener.notifyDataSetChanged();
+                break;
+            case UPDATE_ITEM_REMOVED:
+                mListener.notifyItemRemoved(index);
+                break;
+            case UPDATE_ITEM_INSERTED:
+                mListener.notifyItemInserted(index);
+                break;
+            case UPDATE_ITEM_CHANGED:
+                mListener.notifyItemChanged(index);
+                break;
+        }
+    }
+
     /**
      * Compares the app name and then entry type for the given {@link WidgetsListBaseEntry}s.
      *
@@ -189,4 +233,30 @@ public class WidgetsDiffReporter {
         return curInfo.bitmap.icon.equals(newInfo.bitmap.icon)
                 && !mIconCache.isDefaultIcon(curInfo.bitmap, curInfo.user);
     }
+
+    private interface UpdateCallback {
+        void onUpdate(int type, int index);
+    }
+
+    /**
+     * Adapter notifications computed by {@link #computeUpdates}, in order.
+     */
+    public class PendingUpdates implements UpdateCallback {
+
+        private final IntArray mUpdates = new IntArray();
+
+        @Override
+        public void onUpdate(int type, int index) {
+            mUpdates.add(type);
+            mUpdates.add(index);
+        }
+
+        /** Notifies the adapter of all the updates. */
+        @UiThread
+        public void dispatch() {
+            for (int i = 0; i < mUpdates.size(); i += 2) {
+                dispatchUpdate(mUpdates.get(i), mUpdates.get(i + 1));
+            }
+        }
+    }
 }
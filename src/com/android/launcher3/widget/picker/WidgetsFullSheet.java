@@ -455,14 +455,27 @@ public class WidgetsFullSheet extends BaseWidgetSheet
         List<WidgetsListBaseEntry> allWidgets =
                 mActivityContext.getPopupDataProvider().getAllWidgets();
 
+        // Sorting and diffing the widgets is done in the background as there can be many of
+        // them, the views are updated once the adapters are.
         AdapterHolder primaryUserAdapterHolder = mAdapters.get(AdapterHolder.PRIMARY);
-        primaryUserAdapterHolder.mWidgetsListAdapter.setWidgets(allWidgets);
+        primaryUserAdapterHolder.mWidgetsListAdapter.setWidgetsAsync(allWidgets,
+                this::onWidgetsListUpdated);
 
+        if (mHasWorkProfile) {
+            AdapterHolder workUserAdapterHolder = mAdapters.get(AdapterHolder.WORK);
+            workUserAdapterHolder.mWidgetsListAdapter.setWidgetsAsync(allWidgets,
+                    this::onWidgetsListUpdated);
+        }
+    }
+
+    private void onWidgetsListUpdated() {
+        if (mIsInSearchMode) {
+            return;
+        }
+        AdapterHolder primaryUserAdapterHolder = mAdapters.get(AdapterHolder.PRIMARY);
         if (mHasWorkProfile) {
             mViewPager.setVisibility(VISIBLE);
             mSearchScrollController.mTabBar.setVisibility(VISIBLE);
-            AdapterHolder workUserAdapterHolder = mAdapters.get(AdapterHolder.WORK);
-            workUserAdapterHolder.mWidgetsListAdapter.setWidgets(allWidgets);
             onActivePageChanged(mViewPager.getCurrentPage());
         } else {
             updateRecyclerViewVisibility(primaryUserAdapterHolder);
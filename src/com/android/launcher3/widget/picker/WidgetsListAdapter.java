@@ -19,10 +19,11 @@ import static com.android.launcher3.logging.StatsLogManager.LauncherEvent.LAUNCH
 import static com.android.launcher3.recyclerview.ViewHolderBinder.POSITION_DEFAULT;
 import static com.android.launcher3.recyclerview.ViewHolderBinder.POSITION_FIRST;
 import static com.android.launcher3.recyclerview.ViewHolderBinder.POSITION_LAST;
+import static com.android.launcher3.util.Executors.MAIN_EXECUTOR;
+import static com.android.launcher3.util.Executors.THREAD_POOL_EXECUTOR;
 
 import android.content.Context;
 import android.graphics.Rect;
-import android.os.Process;
 import android.util.Log;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
@@ -43,19 +44,19 @@ import com.android.launcher3.R;
 import com.android.launcher3.icons.IconCache;
 import com.android.launcher3.model.data.PackageItemInfo;
 import com.android.launcher3.recyclerview.ViewHolderBinder;
-import com.android.launcher3.util.LabelComparator;
 import com.android.launcher3.util.PackageUserKey;
 import com.android.launcher3.views.ActivityContext;
+import com.android.launcher3.widget.model.WidgetListBaseRowEntryComparator;
 import com.android.launcher3.widget.model.WidgetListSpaceEntry;
 import com.android.launcher3.widget.model.WidgetsListBaseEntry;
 import com.android.launcher3.widget.model.WidgetsListContentEntry;
 import com.android.launcher3.widget.model.WidgetsListHeaderEntry;
 import com.android.launcher3.widget.model.WidgetsListSearchHeaderEntry;
+import com.android.launcher3.widget.picker.WidgetsDiffReporter.PendingUpdates;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
@@ -95,17 +96,17 @@ public class WidgetsListAdapter extends Adapter<ViewHolder> implements OnHeaderC
     private ArrayList<WidgetsListBaseEntry> mVisibleEntries = new ArrayList<>();
     @Nullable private PackageUserKey mWidgetsContentVisiblePackageUserKey = null;
 
-    private Predicate<WidgetsListBaseEntry> mHeaderAndSelectedContentFilter = entry ->
-            entry instanceof WidgetsListHeaderEntry
-                    || entry instanceof WidgetsListSearchHeaderEntry
-                    || PackageUserKey.fromPackageItemInfo(entry.mPkgItem)
-                            .equals(mWidgetsContentVisiblePackageUserKey);
     @Nullable private Predicate<WidgetsListBaseEntry> mFilter = null;
     @Nullable private RecyclerView mRecyclerView;
     @Nullable private PackageUserKey mPendingClickHeader;
     private final int mSpacingBetweenEntries;
     private int mMaxSpanSize = 4;
 
+    // Incremented on each update of mAllEntries, to ignore superseded background updates
+    private int mAllEntriesGeneration = 0;
+    // Incremented on each update of mVisibleEntries
+    private int mVisibleEntriesGeneration = 0;
+
     public WidgetsListAdapter(Context context, LayoutInflater layoutInflater,
             IconCache iconCache, IntSupplier emptySpaceHeightProvider,
             OnClickListener iconClickListener, OnLongClickListener iconLongClickListener) {
@@ -191,15 +192,70 @@ public class WidgetsListAdapter extends Adapter<ViewHolder> implements OnHeaderC
 
     /** Updates the widget list based on {@code tempEntries}. */
     public void setWidgets(List<WidgetsListBaseEntry> tempEntries) {
+        mAllEntriesGeneration++;
+        List<WidgetsListBaseEntry> allEntries = sortEntries(tempEntries, mRowComparator);
         mAllEntries.clear();
-        mAllEntries.add(new WidgetListSpaceEntry());
-        tempEntries.stream().sorted(mRowComparator).forEach(mAllEntries::add);
-        if (shouldClearVisibleEntries()) {
+        mAllEntries.addAll(allEntries);
+        if (shouldClearVisibleEntries(mAllEntries, mVisibleEntries)) {
             mVisibleEntries.clear();
         }
         updateVisibleEntries();
     }
 
+    /**
+     * Updates the widget list based on {@code tempEntries} like {@link #setWidgets(List)}, but
+     * sorts the entries and computes the difference with the current list in the background.
+     *
+     * @param onUpdated called on the UI thread once the adapter has been updated, unless the
+     *                  update was superseded by another one
+     */
+    public void setWidgetsAsync(List<WidgetsListBaseEntry> tempEntries, Runnable onUpdated) {
+        int allEntriesGeneration = ++mAllEntriesGeneration;
+        int visibleEntriesGeneration = mVisibleEntriesGeneration;
+        ArrayList<WidgetsListBaseEntry> visibleEntries = new ArrayList<>(mVisibleEntries);
+        Predicate<WidgetsListBaseEntry> filter = mFilter;
+        PackageUserKey contentVisibleKey = mWidgetsContentVisiblePackageUserKey;
+        int maxSpanSize = mMaxSpanSize;
+
+        THREAD_POOL_EXECUTOR.execute(() -> {
+            // The comparator is not thread safe, use a separate instance in the background
+            WidgetListBaseRowEntryComparator comparator = new WidgetListBaseRowEntryComparator();
+            List<WidgetsListBaseEntry> allEntries = sortEntries(tempEntries, comparator);
+            if (shouldClearVisibleEntries(allEntries, visibleEntries)) {
+                visibleEntries.clear();
+            }
+            PendingUpdates updates = mDiffReporter.computeUpdates(visibleEntries,
+                    computeVisibleEntries(allEntries, filter, contentVisibleKey, maxSpanSize),
+                    comparator);
+
+            MAIN_EXECUTOR.execute(() -> {
+                if (allEntriesGeneration != mAllEntriesGeneration) {
+                    return;
+                }
+                mAllEntries.clear();
+                mAllEntries.addAll(allEntries);
+                if (visibleEntriesGeneration == mVisibleEntriesGeneration) {
+                    mVisibleEntriesGeneration++;
+                    mVisibleEntries = visibleEntries;
+                    updates.dispatch();
+                } else {
+                    // The visible entries changed in the meantime, recompute them on top of the
+                    // new changes.
+                    updateVisibleEntries();
+                }
+                onUpdated.run();
+            });
+        });
+    }
+
+    private static List<WidgetsListBaseEntry> sortEntries(List<WidgetsListBaseEntry> entries,
+            WidgetListBaseRowEntryComparator comparator) {
+        List<WidgetsListBaseEntry> result = new ArrayList<>(entries.size() + 1);
+        result.add(new WidgetListSpaceEntry());
+        entries.stream().sorted(comparator).forEach(result::add);
+        return result;
+    }
+
     /** Updates the widget list based on {@code searchResults}. */
     public void setWidgetsOnSearch(List<WidgetsListBaseEntry> searchResults) {
         // Forget the expanded package every time widget list is refreshed in search mode.
@@ -215,24 +271,10 @@ public class WidgetsListAdapter extends Adapter<ViewHolder> implements OnHeaderC
         OptionalInt topForPackageUserKey =
                 getOffsetForPosition(previousPositionForPackageUserKey);
 
-        List<WidgetsListBaseEntry> newVisibleEntries = mAllEntries.stream()
-                .filter(entry -> ((mFilter == null || mFilter.test(entry))
-                        && mHeaderAndSelectedContentFilter.test(entry))
-                        || entry instanceof WidgetListSpaceEntry)
-                .map(entry -> {
-                    if (entry instanceof WidgetsListBaseEntry.Header<?>
-                            && matchesKey(entry, mWidgetsContentVisiblePackageUserKey)) {
-                        // Adjust the original entries to expand headers for the selected content.
-                        return ((WidgetsListBaseEntry.Header<?>) entry).withWidgetListShown();
-                    } else if (entry instanceof WidgetsListContentEntry) {
-                        // Adjust the original content entries to accommodate for the current
-                        // maxSpanSize.
-                        return ((WidgetsListContentEntry) entry).withMaxSpanSize(mMaxSpanSize);
-                    }
-                    return entry;
-                })
-                .collect(Collectors.toList());
+        List<WidgetsListBaseEntry> newVisibleEntries = computeVisibleEntries(mAllEntries,
+                mFilter, mWidgetsContentVisiblePackageUserKey, mMaxSpanSize);
 
+        mVisibleEntriesGeneration++;
         mDiffReporter.process(mVisibleEntries, newVisibleEntries, mRowComparator);
 
         if (mPendingClickHeader != null) {
@@ -246,6 +288,34 @@ public class WidgetsListAdapter extends Adapter<ViewHolder> implements OnHeaderC
     }
 
 
+    private static List<WidgetsListBaseEntry> computeVisibleEntries(
+            List<WidgetsListBaseEntry> allEntries,
+            @Nullable Predicate<WidgetsListBaseEntry> filter,
+            @Nullable PackageUserKey contentVisibleKey, int maxSpanSize) {
+        Predicate<WidgetsListBaseEntry> headerAndSelectedContentFilter = entry ->
+                entry instanceof WidgetsListHeaderEntry
+                        || entry instanceof WidgetsListSearchHeaderEntry
+                        || PackageUserKey.fromPackageItemInfo(entry.mPkgItem)
+                                .equals(contentVisibleKey);
+        return allEntries.stream()
+                .filter(entry -> ((filter == null || filter.test(entry))
+                        && headerAndSelectedContentFilter.test(entry))
+                        || entry instanceof WidgetListSpaceEntry)
+                .map(entry -> {
+                    if (entry instanceof WidgetsListBaseEntry.Header<?>
+                            && matchesKey(entry, contentVisibleKey)) {
+                        // Adjust the original entries to expand headers for the selected content.
+                        return ((WidgetsListBaseEntry.Header<?>) entry).withWidgetListShown();
+                    } else if (entry instanceof WidgetsListContentEntry) {
+                        // Adjust the original content entries to accommodate for the current
+                        // maxSpanSize.
+                        return ((WidgetsListContentEntry) entry).withMaxSpanSize(maxSpanSize);
+                    }
+                    return entry;
+                })
+                .collect(Collectors.toList());
+    }
+
     /** Returns whether {@code entry} matches {@code key}. */
     private static boolean isHeaderForPackageUserKey(
             @NonNull WidgetsListBaseEntry entry, @Nullable PackageUserKey key) {
@@ -426,18 +496,19 @@ public class WidgetsListAdapter extends Adapter<ViewHolder> implements OnHeaderC
     }
 
     /**
-     * Returns {@code true} if there is a change in {@link #mAllEntries} that results in an
-     * invalidation of {@link #mVisibleEntries}. e.g. there is change in the device language.
+     * Returns {@code true} if there is a change in {@code allEntries} that results in an
+     * invalidation of {@code visibleEntries}. e.g. there is change in the device language.
      */
-    private boolean shouldClearVisibleEntries() {
+    private static boolean shouldClearVisibleEntries(List<WidgetsListBaseEntry> allEntries,
+            List<WidgetsListBaseEntry> visibleEntries) {
         Map<PackageUserKey, PackageItemInfo> packagesInfo =
-                mAllEntries.stream()
+                allEntries.stream()
                         .filter(entry -> entry instanceof WidgetsListHeaderEntry)
                         .map(entry -> entry.mPkgItem)
                         .collect(Collectors.toMap(
                                 entry -> PackageUserKey.fromPackageItemInfo(entry),
                                 entry -> entry));
-        for (WidgetsListBaseEntry visibleEntry: mVisibleEntries) {
+        for (WidgetsListBaseEntry visibleEntry: visibleEntries) {
             PackageUserKey key = PackageUserKey.fromPackageItemInfo(visibleEntry.mPkgItem);
             PackageItemInfo packageItemInfo = packagesInfo.get(key);
             if (packageItemInfo != null
@@ -447,23 +518,4 @@ public class WidgetsListAdapter extends Adapter<ViewHolder> implements OnHeaderC
         }
         return false;
     }
-
-    /** Comparator for sorting WidgetListRowEntry based on package title. */
-    public static class WidgetListBaseRowEntryComparator implements
-            Comparator<WidgetsListBaseEntry> {
-
-        private final LabelComparator mComparator = new LabelComparator();
-
-        @Override
-        public int compare(WidgetsListBaseEntry a, WidgetsListBaseEntry b) {
-            int i = mComparator.compare(a.mPkgItem.title.toString(), b.mPkgItem.title.toString());
-            if (i != 0) {
-                return i;
-            }
-            // Prioritize entries from current user over other users if the entries are same.
-            if (a.mPkgItem.user.equals(b.mPkgItem.user)) return 0;
-            if (a.mPkgItem.user.equals(Process.myUserHandle())) return -1;
-            return 1;
-        }
-    }
 }
@@ -16,32 +16,36 @@
 
 package com.android.launcher3.widget.picker.search;
 
-import static com.android.launcher3.search.StringMatcherUtility.matches;
+import static com.android.launcher3.util.Executors.UI_HELPER_EXECUTOR;
 
 import android.os.Handler;
 
-import com.android.launcher3.model.WidgetItem;
 import com.android.launcher3.popup.PopupDataProvider;
 import com.android.launcher3.search.SearchAlgorithm;
 import com.android.launcher3.search.SearchCallback;
-import com.android.launcher3.search.StringMatcherUtility.StringMatcher;
 import com.android.launcher3.widget.model.WidgetsListBaseEntry;
-import com.android.launcher3.widget.model.WidgetsListContentEntry;
-import com.android.launcher3.widget.model.WidgetsListHeaderEntry;
-import com.android.launcher3.widget.model.WidgetsListSearchHeaderEntry;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Implementation of {@link SearchAlgorithm} that posts a task to query on the main thread.
+ * Implementation of {@link SearchAlgorithm} that queries a {@link WidgetsSearchIndex} in the
+ * background and posts the results on the main thread.
+ *
+ * <p>The index is rebuilt when the widgets of the {@link PopupDataProvider} are updated. Starting
+ * a new search cancels the previous one.
  */
 public final class SimpleWidgetsSearchAlgorithm implements SearchAlgorithm<WidgetsListBaseEntry> {
 
     private final Handler mResultHandler;
     private final PopupDataProvider mDataProvider;
 
+    // Incremented to cancel the searches in progress
+    private final AtomicInteger mSearchId = new AtomicInteger();
+    // Only accessed on UI_HELPER_EXECUTOR
+    private WidgetsSearchIndex mIndex;
+
     public SimpleWidgetsSearchAlgorithm(PopupDataProvider dataProvider) {
         mResultHandler = new Handler();
         mDataProvider = dataProvider;
@@ -49,46 +53,43 @@ public final class SimpleWidgetsSearchAlgorithm implements SearchAlgorithm<Widge
 
     @Override
     public void doSearch(String query, SearchCallback<WidgetsListBaseEntry> callback) {
-        ArrayList<WidgetsListBaseEntry> result = getFilteredWidgets(mDataProvider, query);
-        mResultHandler.post(() -> callback.onSearchResult(query, result));
+        List<WidgetsListBaseEntry> allWidgets = mDataProvider.getAllWidgets();
+        int searchId = mSearchId.incrementAndGet();
+        UI_HELPER_EXECUTOR.execute(() -> {
+            if (mIndex == null || !mIndex.isIndexOf(allWidgets)) {
+                mIndex = new WidgetsSearchIndex(allWidgets);
+            }
+            ArrayList<WidgetsListBaseEntry> result =
+                    mIndex.search(query, () -> mSearchId.get() != searchId);
+            if (result != null) {
+                mResultHandler.post(() -> {
+                    if (mSearchId.get() == searchId) {
+                        callback.onSearchResult(query, result);
+                    }
+                });
+            }
+        });
     }
 
     @Override
     public void cancel(boolean interruptActiveRequests) {
         if (interruptActiveRequests) {
+            mSearchId.incrementAndGet();
             mResultHandler.removeCallbacksAndMessages(/*token= */null);
         }
     }
 
+    @Override
+    public void destroy() {
+        cancel(/* interruptActiveRequests= */ true);
+        UI_HELPER_EXECUTOR.execute(() -> mIndex = null);
+    }
+
     /**
      * Returns entries for all matched widgets
      */
     public static ArrayList<WidgetsListBaseEntry> getFilteredWidgets(
             PopupDataProvider dataProvider, String input) {
-        ArrayList<WidgetsListBaseEntry> results = new ArrayList<>();
-        dataProvider.getAllWidgets().stream()
-                .filter(entry -> entry instanceof WidgetsListHeaderEntry)
-                .forEach(headerEntry -> {
-                    List<WidgetItem> matchedWidgetItems = filterWidgetItems(
-                            input, headerEntry.mPkgItem.title.toString(), headerEntry.mWidgets);
-                    if (matchedWidgetItems.size() > 0) {
-                        results.add(new WidgetsListSearchHeaderEntry(headerEntry.mPkgItem,
-                                headerEntry.mTitleSectionName, matchedWidgetItems));
-                        results.add(new WidgetsListContentEntry(headerEntry.mPkgItem,
-                                headerEntry.mTitleSectionName, matchedWidgetItems));
-                    }
-                });
-        return results;
-    }
-
-    private static List<WidgetItem> filterWidgetItems(String query, String packageTitle,
-            List<WidgetItem> items) {
-        StringMatcher matcher = StringMatcher.getInstance();
-        if (matches(query, packageTitle, matcher)) {
-            return items;
-        }
-        return items.stream()
-                .filter(item -> matches(query, item.label, matcher))
-                .collect(Collectors.toList());
+        return new WidgetsSearchIndex(dataProvider.getAllWidgets()).search(input, () -> false);
     }
 }
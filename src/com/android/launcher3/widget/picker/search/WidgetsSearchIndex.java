@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.widget.picker.search;
+
+import static com.android.launcher3.search.StringMatcherUtility.getWordStartIndices;
+import static com.android.launcher3.search.StringMatcherUtility.matches;
+import static com.android.launcher3.search.StringMatcherUtility.requestSimpleFuzzySearch;
+
+import androidx.annotation.Nullable;
+
+import com.android.launcher3.model.WidgetItem;
+import com.android.launcher3.search.StringMatcherUtility.StringMatcher;
+import com.android.launcher3.util.IntArray;
+import com.android.launcher3.widget.model.WidgetsListBaseEntry;
+import com.android.launcher3.widget.model.WidgetsListContentEntry;
+import com.android.launcher3.widget.model.WidgetsListHeaderEntry;
+import com.android.launcher3.widget.model.WidgetsListSearchHeaderEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Search index over the package titles and widget labels of the widget picker entries, with the
+ * word start indices of each string precomputed.
+ *
+ * <p>The packages which matched the last query are kept, so that a query which extends it only
+ * needs to look at those packages. The index is not thread safe and must be used on a single
+ * thread.
+ */
+final class WidgetsSearchIndex {
+
+    private final List<WidgetsListBaseEntry> mSource;
+    private final StringMatcher mMatcher = StringMatcher.getInstance();
+
+    private final WidgetsListHeaderEntry[] mHeaders;
+    private final String[] mTitles;
+    private final int[][] mTitleWordStarts;
+    private final String[][] mLabels;
+    private final int[][][] mLabelWordStarts;
+
+    @Nullable private String mLastQuery;
+    @Nullable private IntArray mLastMatchedPackages;
+
+    WidgetsSearchIndex(List<WidgetsListBaseEntry> allWidgets) {
+        mSource = allWidgets;
+        ArrayList<WidgetsListHeaderEntry> headers = new ArrayList<>();
+        for (WidgetsListBaseEntry entry : allWidgets) {
+            if (entry instanceof WidgetsListHeaderEntry) {
+                headers.add((WidgetsListHeaderEntry) entry);
+            }
+        }
+
+        int count = headers.size();
+        mHeaders = headers.toArray(new WidgetsListHeaderEntry[count]);
+        mTitles = new String[count];
+        mTitleWordStarts = new int[count][];
+        mLabels = new String[count][];
+        mLabelWordStarts = new int[count][][];
+        for (int i = 0; i < count; i++) {
+            WidgetsListHeaderEntry header = mHeaders[i];
+            mTitles[i] = header.mPkgItem.title == null ? "" : header.mPkgItem.title.toString();
+            mTitleWordStarts[i] = getWordStartIndices(mTitles[i]);
+
+            int widgetCount = header.mWidgets.size();
+            mLabels[i] = new String[widgetCount];
+            mLabelWordStarts[i] = new int[widgetCount][];
+            for (int j = 0; j < widgetCount; j++) {
+                String label = header.mWidgets.get(j).label;
+                mLabels[i][j] = label == null ? "" : label;
+                mLabelWordStarts[i][j] = getWordStartIndices(mLabels[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Returns true if this index was built from {@code allWidgets}.
+     */
+    boolean isIndexOf(List<WidgetsListBaseEntry> allWidgets) {
+        return mSource == allWidgets;
+    }
+
+    /**
+     * Returns entries for all matched widgets, or null if the search was cancelled.
+     */
+    @Nullable
+    ArrayList<WidgetsListBaseEntry> search(String query, BooleanSupplier isCancelled) {
+        // A query which extends the last one can only match a subset of its packages, as long as
+        // both are matched the same way.
+        boolean extendsLastQuery = mLastQuery != null && !mLastQuery.isEmpty()
+                && query.startsWith(mLastQuery)
+                && requestSimpleFuzzySearch(query) == requestSimpleFuzzySearch(mLastQuery);
+        int candidateCount = extendsLastQuery ? mLastMatchedPackages.size() : mHeaders.length;
+
+        ArrayList<WidgetsListBaseEntry> results = new ArrayList<>();
+        IntArray matchedPackages = new IntArray();
+        for (int c = 0; c < candidateCount; c++) {
+            if (isCancelled.getAsBoolean()) {
+                return null;
+            }
+            int i = extendsLastQuery ? mLastMatchedPackages.get(c) : c;
+            List<WidgetItem> matchedWidgetItems = filterWidgetItems(query, i);
+            if (!matchedWidgetItems.isEmpty()) {
+                matchedPackages.add(i);
+                WidgetsListHeaderEntry header = mHeaders[i];
+                results.add(new WidgetsListSearchHeaderEntry(header.mPkgItem,
+                        header.mTitleSectionName, matchedWidgetItems));
+                results.add(new WidgetsListContentEntry(header.mPkgItem,
+                        header.mTitleSectionName, matchedWidgetItems));
+            }
+        }
+        mLastQuery = query;
+        mLastMatchedPackages = matchedPackages;
+        return results;
+    }
+
+    private List<WidgetItem> filterWidgetItems(String query, int packageIndex) {
+        List<WidgetItem> items = mHeaders[packageIndex].mWidgets;
+        if (matches(query, mTitles[packageIndex], mTitleWordStarts[packageIndex], mMatcher)) {
+            return items;
+        }
+        String[] labels = mLabels[packageIndex];
+        int[][] labelWordStarts = mLabelWordStarts[packageIndex];
+        List<WidgetItem> result = new ArrayList<>();
+        for (int j = 0; j < labels.length; j++) {
+            if (matches(query, labels[j], labelWordStarts[j], mMatcher)) {
+                result.add(items.get(j));
+            }
+        }
+        return result;
+    }
+}
@@ -38,14 +38,15 @@ import com.android.launcher3.util.Preconditions;
 import com.android.launcher3.widget.LauncherAppWidgetProviderInfo;
 import com.android.launcher3.widget.WidgetManagerHelper;
 import com.android.launcher3.widget.WidgetSections;
+import com.android.launcher3.widget.model.WidgetListBaseRowEntryComparator;
 import com.android.launcher3.widget.model.WidgetsListBaseEntry;
 import com.android.launcher3.widget.model.WidgetsListContentEntry;
 import com.android.launcher3.widget.model.WidgetsListHeaderEntry;
-import com.android.launcher3.widget.picker.WidgetsDiffReporter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -71,27 +72,61 @@ public class WidgetsModel {
     /* Map of widgets and shortcuts that are tracked per package. */
     private final Map<PackageItemInfo, List<WidgetItem>> mWidgetsList = new HashMap<>();
 
+    /*
+     * Cache of the picker entries of each package of {@link #mWidgetsList}, sorted using
+     * {@link WidgetListBaseRowEntryComparator}. Entries of a package are only recomputed when the
+     * package is updated.
+     */
+    private final Map<PackageItemInfo, WidgetsListBaseEntry[]> mPickerEntriesCache =
+            new HashMap<>();
+    private ArrayList<WidgetsListBaseEntry> mSortedPickerEntries;
+
     /**
      * Returns a list of {@link WidgetsListBaseEntry}. All {@link WidgetItem} in a single row
-     * are sorted (based on label and user), but the overall list of
-     * {@link WidgetsListBaseEntry}s is not sorted. This list is sorted at the UI when using
-     * {@link WidgetsDiffReporter}
+     * are sorted (based on label and user), and the overall list of {@link WidgetsListBaseEntry}s
+     * is sorted by {@link WidgetListBaseRowEntryComparator}, so that sorting it again at the UI
+     * is cheap.
      *
      * @see com.android.launcher3.widget.picker.WidgetsListAdapter#setWidgets(List)
      */
     public synchronized ArrayList<WidgetsListBaseEntry> getWidgetsListForPicker(Context context) {
-        ArrayList<WidgetsListBaseEntry> result = new ArrayList<>();
-        AlphabeticIndexCompat indexer = new AlphabeticIndexCompat(context);
-
-        for (Map.Entry<PackageItemInfo, List<WidgetItem>> entry : mWidgetsList.entrySet()) {
-            PackageItemInfo pkgItem = entry.getKey();
-            List<WidgetItem> widgetItems = entry.getValue();
-            String sectionName = (pkgItem.title == null) ? "" :
-                    indexer.computeSectionName(pkgItem.title);
-            result.add(new WidgetsListHeaderEntry(pkgItem, sectionName, widgetItems));
-            result.add(new WidgetsListContentEntry(pkgItem, sectionName, widgetItems));
+        if (mSortedPickerEntries == null) {
+            AlphabeticIndexCompat indexer = null;
+            ArrayList<WidgetsListBaseEntry> result = new ArrayList<>(2 * mWidgetsList.size());
+            for (Map.Entry<PackageItemInfo, List<WidgetItem>> entry : mWidgetsList.entrySet()) {
+                PackageItemInfo pkgItem = entry.getKey();
+                WidgetsListBaseEntry[] pickerEntries = mPickerEntriesCache.get(pkgItem);
+                if (pickerEntries == null) {
+                    if (indexer == null) {
+                        indexer = new AlphabeticIndexCompat(context);
+                    }
+                    List<WidgetItem> widgetItems = entry.getValue();
+                    String sectionName = (pkgItem.title == null) ? "" :
+                            indexer.computeSectionName(pkgItem.title);
+                    pickerEntries = new WidgetsListBaseEntry[] {
+                            new WidgetsListHeaderEntry(pkgItem, sectionName, widgetItems),
+                            new WidgetsListContentEntry(pkgItem, sectionName, widgetItems)};
+                    mPickerEntriesCache.put(pkgItem, pickerEntries);
+                }
+                Collections.addAll(result, pickerEntries);
+            }
+            result.sort(new WidgetListBaseRowEntryComparator());
+            mSortedPickerEntries = result;
+        }
+        return new ArrayList<>(mSortedPickerEntries);
+    }
+
+    /**
+     * Invalidates the cached picker entries of the provided package, or of all the packages if
+     * it is null.
+     */
+    private synchronized void invalidatePickerEntries(@Nullable PackageItemInfo pkgItem) {
+        if (pkgItem == null) {
+            mPickerEntriesCache.clear();
+        } else {
+            mPickerEntriesCache.remove(pkgItem);
         }
-        return result;
+        mSortedPickerEntries = null;
     }
 
     /** Returns a mapping of packages to their widgets without static shortcuts. */
@@ -170,9 +205,12 @@ public class WidgetsModel {
         if (packageUser == null) {
             // Clear the list if this is an update on all widgets and shortcuts.
             mWidgetsList.clear();
+            invalidatePickerEntries(null);
         } else {
             // Otherwise, only clear the widgets and shortcuts for the changed package.
-            mWidgetsList.remove(packageItemInfoCache.getOrCreate(packageUser));
+            PackageItemInfo pkgItem = packageItemInfoCache.getOrCreate(packageUser);
+            mWidgetsList.remove(pkgItem);
+            invalidatePickerEntries(pkgItem);
         }
 
         // add and update.
@@ -186,6 +224,7 @@ public class WidgetsModel {
         IconCache iconCache = app.getIconCache();
         for (PackageItemInfo p : packageItemInfoCache.values()) {
             iconCache.getTitleAndIconForApp(p, true /* userLowResIcon */);
+            invalidatePickerEntries(p);
         }
     }
 
@@ -193,6 +232,7 @@ public class WidgetsModel {
             LauncherAppState app) {
         for (Entry<PackageItemInfo, List<WidgetItem>> entry : mWidgetsList.entrySet()) {
             if (packageNames.contains(entry.getKey().packageName)) {
+                invalidatePickerEntries(entry.getKey());
                 List<WidgetItem> items = entry.getValue();
                 int count = items.size();
                 for (int i = 0; i < count; i++) {
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.allapps;
+
+import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
+
+import static com.android.launcher3.model.data.AppInfo.COMPONENT_KEY_COMPARATOR;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ComponentName;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.os.Process;
+import android.os.UserHandle;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import com.android.launcher3.allapps.AlphabeticalAppsList.FastScrollSectionInfo;
+import com.android.launcher3.allapps.BaseAllAppsAdapter.AdapterItem;
+import com.android.launcher3.icons.BitmapInfo;
+import com.android.launcher3.model.data.AppInfo;
+import com.android.launcher3.util.ActivityContextWrapper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests for the incremental updates of {@link AlphabeticalAppsList}
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class AlphabeticalAppsListTest {
+
+    private static final String[] TITLES = new String[] {
+            "Alpha", "alpha", "Beta", "Bravo", "Camera", "Clock", "Éclair", "Maps", "Zebra"};
+    private static final int NUM_STEPS = 200;
+    private static final int MAX_CHANGES_PER_STEP = 3;
+
+    private final UserHandle mMyUser = Process.myUserHandle();
+    private final UserHandle mWorkUser = UserHandle.of(mMyUser.hashCode() + 10);
+
+    private ActivityContextWrapper mContext;
+    private Random mRandom;
+    private int mNextComponentId;
+
+    @Before
+    public void setup() {
+        mContext = new ActivityContextWrapper(getApplicationContext());
+        mRandom = new Random(42);
+    }
+
+    @Test
+    public void compare_ordersSameAppOfDifferentUsersByUser() {
+        AppInfoComparator comparator = new AppInfoComparator(mContext);
+        ComponentName cn = new ComponentName("com.test", "com.test.Main");
+        AppInfo personal = createApp(cn, "Camera", mMyUser);
+        AppInfo work = createApp(cn, "Camera", mWorkUser);
+
+        assertTrue(comparator.compare(personal, work) < 0);
+        assertTrue(comparator.compare(work, personal) > 0);
+        assertEquals(0, comparator.compare(work, createApp(cn, "Camera", mWorkUser)));
+    }
+
+    @Test
+    public void onAppsUpdated_incrementalUpdatesMatchFullRebuild() {
+        List<AppInfo> apps = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            apps.add(createApp(nextComponent(), randomTitle(), mMyUser));
+        }
+        // Same title and component in both users
+        AppInfo personal = apps.get(0);
+        apps.add(createApp(personal.componentName, personal.title, mWorkUser));
+
+        AllAppsStore store = new AllAppsStore();
+        AlphabeticalAppsList<ActivityContextWrapper> appsList =
+                new AlphabeticalAppsList<>(mContext, store, null, true);
+        store.setApps(toSortedArray(apps), 0);
+        assertMatchesFullRebuild(appsList, apps);
+
+        for (int step = 0; step < NUM_STEPS; step++) {
+            Set<AdapterItem> previousItems = Collections.newSetFromMap(new IdentityHashMap<>());
+            previousItems.addAll(appsList.getAdapterItems());
+
+            int numChanges = 1 + mRandom.nextInt(MAX_CHANGES_PER_STEP);
+            for (int i = 0; i < numChanges; i++) {
+                applyRandomChange(apps);
+            }
+            store.setApps(toSortedArray(apps), 0);
+            assertMatchesFullRebuild(appsList, apps);
+
+            // Apps which did not change keep their adapter items when updated incrementally
+            assertTrue("Step " + step + " rebuilt the list",
+                    appsList.getAdapterItems().stream().anyMatch(previousItems::contains));
+        }
+    }
+
+    private void applyRandomChange(List<AppInfo> apps) {
+        switch (mRandom.nextInt(4)) {
+            case 0: {
+                // Add an app, sometimes the same app in the other user
+                AppInfo source = apps.get(mRandom.nextInt(apps.size()));
+                UserHandle otherUser = source.user.equals(mMyUser) ? mWorkUser : mMyUser;
+                boolean hasOtherUser = apps.stream().anyMatch(info ->
+                        info.user.equals(otherUser)
+                                && info.componentName.equals(source.componentName));
+                if (!hasOtherUser && mRandom.nextBoolean()) {
+                    apps.add(createApp(source.componentName, source.title, otherUser));
+                } else {
+                    apps.add(createApp(nextComponent(), randomTitle(), mMyUser));
+                }
+                break;
+            }
+            case 1:
+                // Remove an app, keeping enough apps for some to be unchanged
+                if (apps.size() > 2 * MAX_CHANGES_PER_STEP) {
+                    apps.remove(mRandom.nextInt(apps.size()));
+                }
+                break;
+            case 2:
+                // Rename an app in place, as the model does
+                setTitle(apps.get(mRandom.nextInt(apps.size())), randomTitle());
+                break;
+            default:
+                // Change the icon of an app in place
+                apps.get(mRandom.nextInt(apps.size())).bitmap = createBitmapInfo();
+                break;
+        }
+    }
+
+    private void assertMatchesFullRebuild(
+            AlphabeticalAppsList<ActivityContextWrapper> appsList, List<AppInfo> apps) {
+        AllAppsStore store = new AllAppsStore();
+        AlphabeticalAppsList<ActivityContextWrapper> expected =
+                new AlphabeticalAppsList<>(mContext, store, null, false);
+        store.setApps(toSortedArray(apps), 0);
+
+        List<AdapterItem> expectedItems = expected.getAdapterItems();
+        List<AdapterItem> actualItems = appsList.getAdapterItems();
+        assertEquals(expectedItems.size(), actualItems.size());
+        for (int i = 0; i < expectedItems.size(); i++) {
+            AdapterItem expectedItem = expectedItems.get(i);
+            AdapterItem actualItem = actualItems.get(i);
+            assertEquals(expectedItem.viewType, actualItem.viewType);
+            assertSame("Item " + i, expectedItem.itemInfo, actualItem.itemInfo);
+            assertEquals("Row of item " + i, expectedItem.rowIndex, actualItem.rowIndex);
+            assertEquals("Index in row of item " + i,
+                    expectedItem.rowAppIndex, actualItem.rowAppIndex);
+        }
+
+        List<FastScrollSectionInfo> expectedSections = expected.getFastScrollerSections();
+        List<FastScrollSectionInfo> actualSections = appsList.getFastScrollerSections();
+        assertEquals(expectedSections.size(), actualSections.size());
+        for (int i = 0; i < expectedSections.size(); i++) {
+            assertEquals(expectedSections.get(i).sectionName,
+                    actualSections.get(i).sectionName);
+            assertEquals(expectedSections.get(i).position, actualSections.get(i).position);
+        }
+
+        assertEquals(expected.getNumAppRows(), appsList.getNumAppRows());
+        assertEquals(expected.getNumFilteredApps(), appsList.getNumFilteredApps());
+    }
+
+    private ComponentName nextComponent() {
+        String packageName = "com.test" + mNextComponentId++;
+        return new ComponentName(packageName, packageName + ".Main");
+    }
+
+    private String randomTitle() {
+        return TITLES[mRandom.nextInt(TITLES.length)];
+    }
+
+    private AppInfo createApp(ComponentName cn, CharSequence title, UserHandle user) {
+        AppInfo info = new AppInfo(cn, title, user, new Intent().setComponent(cn));
+        setTitle(info, title);
+        info.bitmap = createBitmapInfo();
+        return info;
+    }
+
+    private static void setTitle(AppInfo info, CharSequence title) {
+        info.title = title;
+        info.sectionName = title.toString().substring(0, 1).toUpperCase(Locale.US);
+    }
+
+    private static BitmapInfo createBitmapInfo() {
+        return BitmapInfo.of(Bitmap.createBitmap(1, 1, Bitmap.Config.ALPHA_8), 0);
+    }
+
+    private static AppInfo[] toSortedArray(List<AppInfo> apps) {
+        AppInfo[] result = apps.toArray(new AppInfo[0]);
+        Arrays.sort(result, COMPONENT_KEY_COMPARATOR);
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Tests for {@link EventLogArray}
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class EventLogArrayTest {
+
+    @Test
+    public void registerEvent_returnsSameIdForSameName() {
+        EventLogArray log = new EventLogArray("test", 10);
+        int id = log.registerEvent("onMotionEvent");
+        assertEquals(id, log.registerEvent("onMotionEvent"));
+        assertTrue(id != log.registerEvent("startQuickstep"));
+    }
+
+    @Test
+    public void dump_formatsRegisteredEvents() {
+        EventLogArray log = new EventLogArray("test", 10);
+        int motion = log.registerEvent("onMotionEvent");
+        log.addLog(motion, 12.5f, 40f, 0);
+        log.addLog(motion, 2);
+        log.addLog("finishRecentsAnimation", true);
+
+        String dump = dump(log);
+        assertTrue(dump.contains("onMotionEvent(12, 40): 0"));
+        assertTrue(dump.contains("onMotionEvent: 2"));
+        assertTrue(dump.contains("finishRecentsAnimation: true"));
+    }
+
+    @Test
+    public void addLog_mergesDuplicates() {
+        EventLogArray log = new EventLogArray("test", 10);
+        int motion = log.registerEvent("onMotionEvent");
+        for (int i = 0; i < 5; i++) {
+            log.addLog(motion, 2);
+        }
+        assertTrue(dump(log).contains("onMotionEvent: 2 & 3 similar events"));
+    }
+
+    @Test
+    public void addLog_formatsPayloadAndKeepsDifferentPayloads() {
+        EventLogArray log = new EventLogArray("test", 10);
+        int target = log.registerEvent("setEndTarget", i -> i == 0 ? "HOME" : "RECENTS");
+        log.addLog(target, 0);
+        log.addLog(target, 1);
+        log.addLog(target, 0);
+
+        String dump = dump(log);
+        assertTrue(dump.contains("setEndTarget: HOME"));
+        assertTrue(dump.contains("setEndTarget: RECENTS"));
+        assertFalse(dump.contains("similar events"));
+    }
+
+    @Test
+    public void addLog_purgesOldEvents() {
+        EventLogArray log = new EventLogArray("test", 2);
+        log.addLog("first");
+        log.addLog("second");
+        log.addLog("third");
+
+        String dump = dump(log);
+        assertFalse(dump.contains("first"));
+        assertTrue(dump.contains("second"));
+        assertTrue(dump.contains("third"));
+    }
+
+    @Test
+    public void clear_removesEvents() {
+        EventLogArray log = new EventLogArray("test", 10);
+        log.addLog("first");
+        log.clear();
+        assertFalse(dump(log).contains("first"));
+    }
+
+    private static String dump(EventLogArray log) {
+        StringWriter writer = new StringWriter();
+        log.dump("", new PrintWriter(writer));
+        return writer.toString();
+    }
+}
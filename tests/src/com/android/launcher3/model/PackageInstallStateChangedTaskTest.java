@@ -40,10 +40,12 @@ public class PackageInstallStateChangedTaskTest {
     }
 
     private PackageInstallStateChangedTask newTask(String pkg, int progress) {
+        return new PackageInstallStateChangedTask(newInstallInfo(pkg, progress));
+    }
+
+    private PackageInstallInfo newInstallInfo(String pkg, int progress) {
         int state = PackageInstallInfo.STATUS_INSTALLING;
-        PackageInstallInfo installInfo = new PackageInstallInfo(pkg, state, progress,
-                android.os.Process.myUserHandle());
-        return new PackageInstallStateChangedTask(installInfo);
+        return new PackageInstallInfo(pkg, state, progress, android.os.Process.myUserHandle());
     }
 
     @Test
@@ -68,6 +70,26 @@ public class PackageInstallStateChangedTaskTest {
         verifyProgressUpdate(30, 8, 9);
     }
 
+    @Test
+    public void testSessionUpdate_batch_appliesLatestProgress() throws Exception {
+        mModelHelper.executeTaskForTest(new PackageInstallStateChangedTask(Arrays.asList(
+                newInstallInfo("app3", 10),
+                newInstallInfo("app4", 20),
+                newInstallInfo("app3", 30))));
+
+        HashSet<Integer> shortcuts = new HashSet<>(Arrays.asList(5, 6, 7));
+        HashSet<Integer> widgets = new HashSet<>(Arrays.asList(8, 9));
+        for (ItemInfo info : mModelHelper.getBgDataModel().itemsIdMap) {
+            if (info instanceof WorkspaceItemInfo) {
+                assertEquals(shortcuts.contains(info.id) ? 30 : 100,
+                        ((WorkspaceItemInfo) info).getProgressLevel());
+            } else {
+                assertEquals(widgets.contains(info.id) ? 20 : -1,
+                        ((LauncherAppWidgetInfo) info).installProgress);
+            }
+        }
+    }
+
     private void verifyProgressUpdate(int progress, Integer... idsUpdated) {
         HashSet<Integer> updates = new HashSet<>(Arrays.asList(idsUpdated));
         for (ItemInfo info : mModelHelper.getBgDataModel().itemsIdMap) {
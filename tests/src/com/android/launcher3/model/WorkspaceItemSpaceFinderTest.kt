@@ -168,4 +168,24 @@ class WorkspaceItemSpaceFinderTest : AbstractWorkspaceModelTest() {
         assertThat(spaceFound.screenId).isEqualTo(3)
         assertRegionVacant(spaceFound, 3, 1)
     }
+
+    @Test
+    fun bulkPlacement_doesNotReturnSameSpaceTwice() {
+        setupWorkspacesWithSpaces(
+            // 3x2 space on screen 0, but it should be skipped
+            screen0 = listOf(Rect(2, 0, 5, 2)),
+            screen1 = listOf(Rect(2, 2, 3, 3)), // 1x1 space
+            screen2 = listOf(Rect(2, 0, 5, 2)), // 3x2 space
+        )
+
+        mItemSpaceFinder.startBulkPlacement()
+        val firstSpace = findSpace(1, 1)
+        val secondSpace = findSpace(1, 1)
+        mItemSpaceFinder.endBulkPlacement()
+
+        assertThat(firstSpace.screenId).isEqualTo(1)
+        assertRegionVacant(firstSpace, 1, 1)
+        assertThat(secondSpace.screenId).isEqualTo(2)
+        assertRegionVacant(secondSpace, 1, 1)
+    }
 }
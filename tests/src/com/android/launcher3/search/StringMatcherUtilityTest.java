@@ -17,6 +17,7 @@ package com.android.launcher3.search;
 
 import static com.android.launcher3.search.StringMatcherUtility.matches;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -93,4 +94,19 @@ public class StringMatcherUtilityTest {
         assertFalse(matches("ㄷ", "로드라이브", MATCHER));
         assertFalse(matches("åç", "abc", MATCHER));
     }
+
+    @Test
+    public void testMatchesWithWordStartIndices() {
+        String[] targets = {"white cow", "whiteCOW", "whitecowCow", "white2cow", "cats&Dogs",
+                "2+43", "  Q", "Elephant", "电子邮件", "다운로드 드라이브", ""};
+        String[] queries = {"white ", "cow", "c", "dog", "&", "43", "3", "q", "el", "子",
+                "ㄷ", "elephants", ""};
+        for (String target : targets) {
+            int[] wordStartIndices = StringMatcherUtility.getWordStartIndices(target);
+            for (String query : queries) {
+                assertEquals(query + " in " + target, matches(query, target, MATCHER),
+                        matches(query, target, wordStartIndices, MATCHER));
+            }
+        }
+    }
 }
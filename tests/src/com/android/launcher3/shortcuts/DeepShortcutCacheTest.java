@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.shortcuts;
+
+import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import android.content.ComponentName;
+import android.content.pm.ShortcutInfo;
+import android.os.Process;
+import android.os.UserHandle;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import com.android.launcher3.model.data.WorkspaceItemInfo;
+import com.android.launcher3.util.ComponentKey;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link DeepShortcutCache}
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class DeepShortcutCacheTest {
+
+    private static final UserHandle USER = Process.myUserHandle();
+    private static final ComponentName ACTIVITY_A = new ComponentName("com.a", "com.a.Main");
+    private static final ComponentName ACTIVITY_A2 = new ComponentName("com.a", "com.a.Other");
+    private static final ComponentName ACTIVITY_B = new ComponentName("com.b", "com.b.Main");
+
+    private final DeepShortcutCache mCache = new DeepShortcutCache();
+
+    @Test
+    public void update_groupsShortcutsByActivity() {
+        mCache.update(null, USER, Arrays.asList(
+                createInfo("a1", ACTIVITY_A, true), createInfo("a2", ACTIVITY_A2, true),
+                createInfo("a3", ACTIVITY_A, true), createInfo("b1", ACTIVITY_B, true)));
+
+        assertEquals(2, mCache.getShortcuts(new ComponentKey(ACTIVITY_A, USER)).size());
+        assertEquals(1, mCache.getShortcuts(new ComponentKey(ACTIVITY_A2, USER)).size());
+        assertEquals(1, mCache.getShortcuts(new ComponentKey(ACTIVITY_B, USER)).size());
+    }
+
+    @Test
+    public void update_ignoresShortcutsNotShownInPopup() {
+        mCache.update(null, USER, Arrays.asList(
+                createInfo("a1", ACTIVITY_A, true), createInfo("a2", ACTIVITY_A, false)));
+
+        List<ShortcutInfo> shortcuts = mCache.getShortcuts(new ComponentKey(ACTIVITY_A, USER));
+        assertEquals(1, shortcuts.size());
+        assertEquals("a1", shortcuts.get(0).getId());
+    }
+
+    @Test
+    public void update_withPackage_replacesShortcutsAndItemsOfThatPackage() {
+        ShortcutInfo a1 = createInfo("a1", ACTIVITY_A, true);
+        ShortcutInfo b1 = createInfo("b1", ACTIVITY_B, true);
+        mCache.update(null, USER, Arrays.asList(a1, createInfo("a2", ACTIVITY_A2, true), b1));
+        mCache.putItem(a1, new WorkspaceItemInfo());
+        mCache.putItem(b1, new WorkspaceItemInfo());
+
+        mCache.update("com.a", USER, Collections.singletonList(a1));
+
+        assertEquals(1, mCache.getShortcuts(new ComponentKey(ACTIVITY_A, USER)).size());
+        assertNull(mCache.getShortcuts(new ComponentKey(ACTIVITY_A2, USER)));
+        assertNotNull(mCache.getShortcuts(new ComponentKey(ACTIVITY_B, USER)));
+        assertNull(mCache.getItem(a1));
+        assertNotNull(mCache.getItem(b1));
+    }
+
+    @Test
+    public void removeUser_removesAllShortcutsOfUser() {
+        ShortcutInfo a1 = createInfo("a1", ACTIVITY_A, true);
+        mCache.update(null, USER, Collections.singletonList(a1));
+        mCache.putItem(a1, new WorkspaceItemInfo());
+
+        mCache.removeUser(USER);
+
+        assertNull(mCache.getShortcuts(new ComponentKey(ACTIVITY_A, USER)));
+        assertNull(mCache.getItem(a1));
+    }
+
+    private ShortcutInfo createInfo(String id, ComponentName activity, boolean isDynamic) {
+        ShortcutInfo info = spy(new ShortcutInfo.Builder(getApplicationContext(), id)
+                .setActivity(activity)
+                .setShortLabel(id)
+                .build());
+        doReturn(activity.getPackageName()).when(info).getPackage();
+        doReturn(isDynamic).when(info).isDynamic();
+        return info;
+    }
+}
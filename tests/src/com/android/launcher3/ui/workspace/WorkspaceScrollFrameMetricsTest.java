@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.ui.workspace;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.Window.OnFrameMetricsAvailableListener;
+
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.android.launcher3.config.FeatureFlags;
+import com.android.launcher3.tapl.TestHelpers;
+import com.android.launcher3.tapl.Workspace;
+import com.android.launcher3.ui.AbstractLauncherUiTest;
+import com.android.launcher3.ui.TaplTestsLauncher3;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the frame times of the workspace while flinging between pages, to compare the
+ * workspace layer policies by running it with {@link FeatureFlags#ENABLE_SCROLL_LAYER_CACHING}
+ * disabled and enabled.
+ *
+ * Note running these tests will clear the workspace on the device.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class WorkspaceScrollFrameMetricsTest extends AbstractLauncherUiTest {
+
+    private static final String TAG = "WorkspaceScrollFrameMetricsTest";
+
+    private static final int FLING_COUNT = 10;
+    private static final long JANK_THRESHOLD_NS = 16_666_667;
+
+    @Test
+    public void testFlingFrameMetrics() throws Exception {
+        // The frame metrics are read from the launcher window
+        assumeTrue(TestHelpers.isInLauncherProcess());
+        TaplTestsLauncher3.initialize(this);
+        Workspace workspace = mLauncher.getWorkspace();
+        workspace.ensureWorkspaceIsScrollable();
+
+        List<Long> frameDurations = Collections.synchronizedList(new ArrayList<>());
+        OnFrameMetricsAvailableListener listener = (window, frameMetrics, dropCount) ->
+                frameDurations.add(frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+        Handler handler = new Handler(Looper.getMainLooper());
+        executeOnLauncher(l -> l.getWindow().addOnFrameMetricsAvailableListener(listener, handler));
+        try {
+            for (int i = 0; i < FLING_COUNT; i++) {
+                workspace.flingForward();
+                workspace.flingBackward();
+            }
+        } finally {
+            executeOnLauncher(l -> l.getWindow().removeOnFrameMetricsAvailableListener(listener));
+        }
+
+        List<Long> durations;
+        synchronized (frameDurations) {
+            durations = new ArrayList<>(frameDurations);
+        }
+        assertFalse("No frames were recorded while flinging", durations.isEmpty());
+        reportFrameMetrics(durations);
+    }
+
+    private void reportFrameMetrics(List<Long> durations) {
+        Collections.sort(durations);
+        int jankyFrames = 0;
+        for (long duration : durations) {
+            if (duration > JANK_THRESHOLD_NS) {
+                jankyFrames++;
+            }
+        }
+        String policy = FeatureFlags.ENABLE_SCROLL_LAYER_CACHING.get()
+                ? "scroll_layer_caching" : "visible_page_layers";
+
+        Bundle results = new Bundle();
+        results.putString("layer_policy", policy);
+        results.putInt("frame_count", durations.size());
+        results.putInt("janky_frame_count", jankyFrames);
+        results.putLong("frame_duration_p50_us", getPercentile(durations, 50) / 1000);
+        results.putLong("frame_duration_p90_us", getPercentile(durations, 90) / 1000);
+        results.putLong("frame_duration_p99_us", getPercentile(durations, 99) / 1000);
+        InstrumentationRegistry.getInstrumentation().sendStatus(Activity.RESULT_OK, results);
+        Log.d(TAG, "Fling frame metrics: " + results);
+    }
+
+    private static long getPercentile(List<Long> sortedDurations, int percentile) {
+        int index = (sortedDurations.size() - 1) * percentile / 100;
+        return sortedDurations.get(index);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import com.android.launcher3.model.data.AppInfo;
+import com.android.launcher3.util.LabelComparator.SortKey;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link LabelComparator}
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class LabelComparatorTest {
+
+    private static final String TAG = "LabelComparatorTest";
+
+    private static final int BENCHMARK_LABEL_COUNT = 500;
+    private static final int BENCHMARK_ITERATIONS = 20;
+
+    private final LabelComparator mComparator = new LabelComparator();
+
+    @Test
+    public void compareSortKeys_sameOrderAsLabels() {
+        List<String> labels = Arrays.asList(
+                "Zebra", "apple", "Apple", "1Password", "#hashtag", "", "Éclair", "eclair", "b");
+        List<String> sortedLabels = new ArrayList<>(labels);
+        sortedLabels.sort(mComparator);
+
+        List<SortKey> sortedKeys = new ArrayList<>();
+        for (String label : labels) {
+            sortedKeys.add(mComparator.getSortKey(null, label));
+        }
+        sortedKeys.sort(mComparator::compare);
+
+        for (int i = 0; i < labels.size(); i++) {
+            assertEquals(sortedLabels.get(i), sortedKeys.get(i).getLabel());
+        }
+    }
+
+    @Test
+    public void getTitleSortKey_recomputedOnlyWhenTitleChanges() {
+        AppInfo info = new AppInfo();
+        info.title = "Calendar";
+        SortKey key = mComparator.getTitleSortKey(info);
+        assertSame(key, mComparator.getTitleSortKey(info));
+
+        info.title = "Calculator";
+        SortKey newKey = mComparator.getTitleSortKey(info);
+        assertNotSame(key, newKey);
+        assertEquals("Calculator", newKey.getLabel());
+    }
+
+    @Test
+    public void benchmark_sortWithSortKeys() {
+        Random random = new Random(0);
+        List<AppInfo> apps = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_LABEL_COUNT; i++) {
+            AppInfo info = new AppInfo();
+            info.title = randomLabel(random);
+            apps.add(info);
+        }
+
+        long labelsTime = 0;
+        long keysTime = 0;
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            List<AppInfo> byLabels = new ArrayList<>(apps);
+            long start = SystemClock.elapsedRealtimeNanos();
+            byLabels.sort((a, b) -> mComparator.compare(a.title.toString(), b.title.toString()));
+            labelsTime += SystemClock.elapsedRealtimeNanos() - start;
+
+            // The keys are computed by the first sort and reused by the following ones, like
+            // when the all apps list is sorted again after an update
+            List<AppInfo> byKeys = new ArrayList<>(apps);
+            start = SystemClock.elapsedRealtimeNanos();
+            byKeys.sort((a, b) -> mComparator.compare(
+                    mComparator.getTitleSortKey(a), mComparator.getTitleSortKey(b)));
+            keysTime += SystemClock.elapsedRealtimeNanos() - start;
+
+            assertEquals(byLabels, byKeys);
+        }
+        Log.d(TAG, "Sorted " + BENCHMARK_LABEL_COUNT + " labels " + BENCHMARK_ITERATIONS
+                + " times, labels: " + labelsTime / 1000 + "us, sort keys: "
+                + keysTime / 1000 + "us");
+    }
+
+    private static String randomLabel(Random random) {
+        StringBuilder label = new StringBuilder();
+        int length = 4 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(26));
+            label.append(i == 0 ? Character.toUpperCase(c) : c);
+        }
+        return label.toString();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.launcher3.util;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.SmallTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the binary format of {@link PersistedItemArray}
+ */
+@SmallTest
+@RunWith(AndroidJUnit4.class)
+public class PersistedItemArrayTest {
+
+    @Test
+    public void encodeDecode_roundTrip() throws IOException {
+        byte[][] intents = new byte[][] {
+                "#Intent;component=com.a/.Main;end".getBytes(StandardCharsets.UTF_8),
+                "".getBytes(StandardCharsets.UTF_8),
+                "#Intent;package=com.bé;end".getBytes(StandardCharsets.UTF_8),
+        };
+        byte[] data = PersistedItemArray.encode(3, new int[] {0, 6, 1},
+                new long[] {0, 10, Long.MAX_VALUE}, intents);
+
+        List<String> entries = new ArrayList<>();
+        PersistedItemArray.decode(ByteBuffer.wrap(data), (itemType, profileId, intentUri) ->
+                entries.add(itemType + "," + profileId + "," + intentUri));
+
+        assertEquals(3, entries.size());
+        assertEquals("0,0,#Intent;component=com.a/.Main;end", entries.get(0));
+        assertEquals("6,10,", entries.get(1));
+        assertEquals("1," + Long.MAX_VALUE + ",#Intent;package=com.bé;end", entries.get(2));
+    }
+
+    @Test
+    public void encode_ignoresEntriesBeyondCount() throws IOException {
+        byte[] data = PersistedItemArray.encode(1, new int[] {0, 1}, new long[] {0, 0},
+                new byte[][] {"a".getBytes(StandardCharsets.UTF_8), null});
+
+        List<String> entries = new ArrayList<>();
+        PersistedItemArray.decode(ByteBuffer.wrap(data),
+                (itemType, profileId, intentUri) -> entries.add(intentUri));
+        assertEquals(1, entries.size());
+        assertEquals("a", entries.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_rejectsInvalidData() throws IOException {
+        PersistedItemArray.decode(ByteBuffer.wrap(new byte[16]),
+                (itemType, profileId, intentUri) -> { });
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_rejectsTruncatedData() throws IOException {
+        byte[] data = PersistedItemArray.encode(1, new int[] {0}, new long[] {0},
+                new byte[][] {"#Intent;component=com.a/.Main;end".getBytes(
+                        StandardCharsets.UTF_8)});
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.limit(data.length - 4);
+        PersistedItemArray.decode(buffer, (itemType, profileId, intentUri) -> { });
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_rejectsDecreasingOffsets() throws IOException {
+        byte[] data = PersistedItemArray.encode(2, new int[] {0, 0}, new long[] {0, 0},
+                new byte[][] {"ab".getBytes(StandardCharsets.UTF_8),
+                        "c".getBytes(StandardCharsets.UTF_8)});
+        // Overwrite the end offset of the second intent with one before the first one ends
+        int offsetsStart = 3 * Integer.BYTES + 2 * Integer.BYTES + 2 * Long.BYTES;
+        ByteBuffer.wrap(data).putInt(offsetsStart + Integer.BYTES, 1);
+        PersistedItemArray.decode(ByteBuffer.wrap(data), (itemType, profileId, intentUri) -> { });
+    }
+}
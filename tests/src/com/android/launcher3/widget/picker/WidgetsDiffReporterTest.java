@@ -23,6 +23,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -43,14 +44,15 @@ import com.android.launcher3.icons.IconCache;
 import com.android.launcher3.model.WidgetItem;
 import com.android.launcher3.model.data.PackageItemInfo;
 import com.android.launcher3.widget.LauncherAppWidgetProviderInfo;
+import com.android.launcher3.widget.model.WidgetListBaseRowEntryComparator;
 import com.android.launcher3.widget.model.WidgetsListBaseEntry;
 import com.android.launcher3.widget.model.WidgetsListContentEntry;
 import com.android.launcher3.widget.model.WidgetsListHeaderEntry;
-import com.android.launcher3.widget.picker.WidgetsListAdapter.WidgetListBaseRowEntryComparator;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -181,6 +183,34 @@ public final class WidgetsDiffReporterTest {
         assertThat(currentList).containsExactlyElementsIn(newList);
     }
 
+    @Test
+    public void computeUpdates_itemAddedAndRemoved_shouldInvokeCallbacksOnlyOnDispatch() {
+        // GIVEN the current list has app headers [A, B, D].
+        ArrayList<WidgetsListBaseEntry> currentList = new ArrayList<>(
+                List.of(mHeaderA, mHeaderB, mHeaderD));
+        // GIVEN the new list has app headers [A, C, E].
+        List<WidgetsListBaseEntry> newList = List.of(mHeaderA, mHeaderC, mHeaderE);
+
+        // WHEN computing the list difference without dispatching it.
+        WidgetsDiffReporter.PendingUpdates updates =
+                mWidgetsDiffReporter.computeUpdates(currentList, newList, COMPARATOR);
+
+        // THEN there is no adaptor callback.
+        verifyZeroInteractions(mAdapter);
+        // THEN the current list contains all elements from the new list.
+        assertThat(currentList).containsExactlyElementsIn(newList);
+
+        // WHEN dispatching the difference.
+        updates.dispatch();
+
+        // THEN the same callbacks as process are invoked, in order.
+        InOrder inOrder = inOrder(mAdapter);
+        inOrder.verify(mAdapter).notifyItemRemoved(/* position= */ 1);
+        inOrder.verify(mAdapter).notifyItemInserted(/* position= */ 1);
+        inOrder.verify(mAdapter).notifyItemRemoved(/* position= */ 2);
+        inOrder.verify(mAdapter).notifyItemInserted(/* position= */ 2);
+    }
+
     @Test
     public void headersContentsMix_itemAddedAndRemovedInTheNewList_shouldInvokeCorrectCallbacks() {
         // GIVEN the current list has app headers [A, B, E content].
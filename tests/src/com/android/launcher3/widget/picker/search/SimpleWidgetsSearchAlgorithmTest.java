@@ -19,6 +19,7 @@ package com.android.launcher3.widget.picker.search;
 import static androidx.test.core.app.ApplicationProvider.getApplicationContext;
 
 import static com.android.launcher3.util.Executors.MAIN_EXECUTOR;
+import static com.android.launcher3.util.Executors.UI_HELPER_EXECUTOR;
 import static com.android.launcher3.util.WidgetUtils.createAppWidgetProviderInfo;
 
 import static org.junit.Assert.assertEquals;
@@ -28,6 +29,7 @@ import static org.mockito.ArgumentMatchers.matches;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 import android.appwidget.AppWidgetProviderInfo;
 import android.content.ComponentName;
@@ -164,11 +166,60 @@ public class SimpleWidgetsSearchAlgorithmTest {
                 .when(mDataProvider)
                 .getAllWidgets();
         mSimpleWidgetsSearchAlgorithm.doSearch("Ca", mSearchCallback);
-        MAIN_EXECUTOR.submit(() -> { }).get();
+        waitForSearch();
         verify(mSearchCallback).onSearchResult(
                 matches("Ca"), argThat(a -> a != null && !a.isEmpty()));
     }
 
+    @Test
+    public void doSearch_prefixExtendingQueries_shouldMatchSameAsFullSearch() throws Exception {
+        doReturn(List.of(mCalendarHeaderEntry, mCalendarContentEntry, mCameraHeaderEntry,
+                mCameraContentEntry, mClockHeaderEntry, mClockContentEntry))
+                .when(mDataProvider)
+                .getAllWidgets();
+        List<ArrayList<WidgetsListBaseEntry>> results = new ArrayList<>();
+        SearchCallback<WidgetsListBaseEntry> callback = new SearchCallback<WidgetsListBaseEntry>() {
+            @Override
+            public void onSearchResult(String query, ArrayList<WidgetsListBaseEntry> items) {
+                results.add(items);
+            }
+
+            @Override
+            public void clearSearchResult() { }
+        };
+
+        String[] queries = {"C", "Ca", "Cam", "Widget", "Widget1"};
+        for (String query : queries) {
+            mSimpleWidgetsSearchAlgorithm.doSearch(query, callback);
+            waitForSearch();
+        }
+
+        assertEquals(queries.length, results.size());
+        for (int i = 0; i < queries.length; i++) {
+            assertEquals(
+                    SimpleWidgetsSearchAlgorithm.getFilteredWidgets(mDataProvider, queries[i]),
+                    results.get(i));
+        }
+    }
+
+    @Test
+    public void cancel_shouldNotInformCallback() throws Exception {
+        doReturn(List.of(mCalendarHeaderEntry, mCalendarContentEntry))
+                .when(mDataProvider)
+                .getAllWidgets();
+        MAIN_EXECUTOR.submit(() -> {
+            mSimpleWidgetsSearchAlgorithm.doSearch("Ca", mSearchCallback);
+            mSimpleWidgetsSearchAlgorithm.cancel(/* interruptActiveRequests= */ true);
+        }).get();
+        waitForSearch();
+        verifyZeroInteractions(mSearchCallback);
+    }
+
+    private static void waitForSearch() throws Exception {
+        UI_HELPER_EXECUTOR.submit(() -> { }).get();
+        MAIN_EXECUTOR.submit(() -> { }).get();
+    }
+
     private WidgetsListHeaderEntry createWidgetsHeaderEntry(String packageName, String appName,
             int numOfWidgets) {
         List<WidgetItem> widgetItems = generateWidgetItems(packageName, numOfWidgets);